@@ -8,47 +8,167 @@
  */
 package io.ran;
 
-import java.util.HashMap;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 public class AutoMapper {
-	private static Map<Class, Class> mapped = new HashMap<>();
-	private static Map<Class, Class> query = new HashMap<>();
+	// Lookups are lock free, only generation is done under the AutoMapper lock. The query class is registered
+	// before the mapping class, so a class present in mapped always has its query class as well.
+	private static Map<Class, Class> mapped = new ConcurrentHashMap<>();
+	private static Map<Class, Class> query = new ConcurrentHashMap<>();
 	private static MapperGenerator mapperGenerator = new MapperGenerator();
 	private static AutoMapperClassLoader classLoader = new AutoMapperClassLoader(AutoMapper.class.getClassLoader());
+	// Mappers defined in the model's own class loader are kept on the model class, so they don't keep it from being unloaded
+	private static ClassValue<MapperGenerator.Wrapped> definedWithLookup = new ClassValue<MapperGenerator.Wrapped>() {
+		@Override
+		protected MapperGenerator.Wrapped computeValue(Class<?> type) {
+			synchronized (AutoMapper.class) {
+				return generate(type, () -> mapperGenerator.defineWithLookup(type, mapperGenerator.getBytecode(Clazz.of(type))));
+			}
+		}
+	};
+
+	public static void setCacheDirectory(Path cacheDirectory) {
+		mapperGenerator.setCacheDirectory(cacheDirectory);
+	}
 
+	// Does not include mappers defined in the model's own class loader
 	public Map<Class, Class> getMapped() {
 		return mapped;
 	}
 
 	public static void map(Class aClass) {
 		if (!mapped.containsKey(aClass)) {
+			if (definesWithLookup(aClass)) {
+				definedWithLookup.get(aClass);
+				return;
+			}
 			synchronized (AutoMapper.class) {
 				if (!mapped.containsKey(aClass)) {
-					try {
-						MapperGenerator.Wrapped wrapped = mapperGenerator.generate(classLoader, Clazz.of(aClass));
-
-						mapped.put(aClass, wrapped.mapping);
-						query.put(aClass, wrapped.query);
-					} catch (Throwable e) {
-						System.out.println("Error generating mappings for: " + aClass.getName());
-						System.out.println(e.toString());
-						e.printStackTrace();
-						throw new RuntimeException(e);
+					MapperGenerator.Wrapped wrapped = generate(aClass, () -> mapperGenerator.generate(classLoader, Clazz.of(aClass)));
+					query.put(aClass, wrapped.query);
+					mapped.put(aClass, wrapped.mapping);
+				}
+			}
+		}
+	}
+
+	private static MapperGenerator.Wrapped generate(Class<?> aClass, Supplier<MapperGenerator.Wrapped> generator) {
+		try {
+			return mapperGenerator.findPrecompiled(aClass).orElseGet(generator);
+		} catch (Throwable e) {
+			System.out.println("Error generating mappings for: " + aClass.getName());
+			System.out.println(e.toString());
+			e.printStackTrace();
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static boolean definesWithLookup(Class<?> aClass) {
+		return GenerationSettings.definesWithLookup(aClass, aClass.getName());
+	}
+
+	// Classes in the package that can not be mapped are skipped, and returned with the reason they could not be mapped
+	public static Map<Class<?>, RuntimeException> mapAll(String packageName) {
+		ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+		return mapAllClasses(new ClassScanner(classLoader != null ? classLoader : AutoMapper.class.getClassLoader()).scan(packageName));
+	}
+
+	// Maps every class that can be mapped, before failing with a MappingFailedException for the ones that can not
+	public static void mapAll(Collection<? extends Class<?>> classes) {
+		Map<Class<?>, RuntimeException> failures = mapAllClasses(classes);
+		if (!failures.isEmpty()) {
+			throw new MappingFailedException(failures);
+		}
+	}
+
+	private static Map<Class<?>, RuntimeException> mapAllClasses(Collection<? extends Class<?>> classes) {
+		List<Class<?>> pending = classes.stream().distinct().filter(c -> !mapped.containsKey(c)).collect(Collectors.toList());
+		// Generation runs in parallel on the common fork-join pool, only defining the classes is done under the lock
+		List<Prepared> prepared = pending.parallelStream().map(Prepared::new).collect(Collectors.toList());
+		Map<Class<?>, RuntimeException> failures = new LinkedHashMap<>();
+		synchronized (AutoMapper.class) {
+			for (Prepared p : prepared) {
+				if (mapped.containsKey(p.modelClass)) {
+					continue;
+				}
+				try {
+					if (definesWithLookup(p.modelClass)) {
+						p.defineWithLookup();
+						definedWithLookup.get(p.modelClass);
+						continue;
 					}
+					MapperGenerator.Wrapped wrapped = p.define();
+					query.put(p.modelClass, wrapped.query);
+					mapped.put(p.modelClass, wrapped.mapping);
+				} catch (RuntimeException e) {
+					failures.put(p.modelClass, e);
 				}
 			}
 		}
+		return failures;
 	}
 
-	public synchronized static <X, Z extends X> Class<Z> get(Class<X> xClass) {
-		if (!mapped.containsKey(xClass)) {
+	public static <X, Z extends X> Class<Z> get(Class<X> xClass) {
+		Class mapping = mapped.get(xClass);
+		if (mapping == null) {
+			if (definesWithLookup(xClass)) {
+				return (Class<Z>) definedWithLookup.get(xClass).mapping;
+			}
 			map(xClass);
+			mapping = mapped.get(xClass);
 		}
-		return (Class<Z>) mapped.get(xClass);
+		return (Class<Z>) mapping;
 	}
 
-	public synchronized static <X, Z extends X> Class<Z> getQueryMaps(Class<X> xClass) {
-		return query.get(xClass);
+	public static <X, Z extends X> Class<Z> getQueryMaps(Class<X> xClass) {
+		Class queryClass = query.get(xClass);
+		if (queryClass == null && definesWithLookup(xClass)) {
+			return (Class<Z>) definedWithLookup.get(xClass).query;
+		}
+		return (Class<Z>) queryClass;
+	}
+
+	private static class Prepared {
+		private final Class<?> modelClass;
+		private MapperGenerator.Wrapped precompiled;
+		private MapperGenerator.Bytecode bytecode;
+		private RuntimeException error;
+
+		Prepared(Class<?> modelClass) {
+			this.modelClass = modelClass;
+			try {
+				precompiled = mapperGenerator.findPrecompiled(modelClass).orElse(null);
+				if (precompiled == null) {
+					bytecode = mapperGenerator.getBytecode(Clazz.of(modelClass));
+				}
+			} catch (RuntimeException e) {
+				error = e;
+			} catch (Throwable e) {
+				error = new RuntimeException(e);
+			}
+		}
+
+		MapperGenerator.Wrapped define() {
+			if (error != null) {
+				throw error;
+			}
+			return precompiled != null ? precompiled : mapperGenerator.define(classLoader, bytecode);
+		}
+
+		void defineWithLookup() {
+			if (error != null) {
+				throw error;
+			}
+			if (precompiled == null) {
+				mapperGenerator.defineWithLookup(modelClass, bytecode);
+			}
+		}
 	}
 }
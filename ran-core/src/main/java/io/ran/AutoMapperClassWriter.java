@@ -8,7 +8,9 @@
  */
 package io.ran;
 
+import org.objectweb.asm.AnnotationVisitor;
 import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
 
 public class AutoMapperClassWriter extends ClassWriter {
 	protected String name;
@@ -40,14 +42,28 @@ public class AutoMapperClassWriter extends ClassWriter {
 		), signature.getParameterCount());
 	}
 
+	public MethodWriter staticInitializer() {
+		return new MethodWriter(getSelf(), wrapperClazz, visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null), 0);
+	}
+
 	public void addAnnotation(Clazz annotation, boolean visibleAtRuntime) {
 		visitAnnotation(annotation.getDescriptor(), visibleAtRuntime);
 	}
 
+	public void addAnnotation(Clazz annotation, boolean visibleAtRuntime, String name, Object value) {
+		AnnotationVisitor visitor = visitAnnotation(annotation.getDescriptor(), visibleAtRuntime);
+		visitor.visit(name, value);
+		visitor.visitEnd();
+	}
+
 	public void field(Access access, String name, Clazz type, Object value) {
 		visitField(access.getOpCode(), name, type.getDescriptor(), type.generics.isEmpty() ? null : type.getSignature(), value);
 	}
 
+	public void constant(Access access, String name, Clazz type) {
+		visitField(access.getOpCode() | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, name, type.getDescriptor(), type.generics.isEmpty() ? null : type.getSignature(), null);
+	}
+
 	public String getName() {
 		return name;
 	}
@@ -8,17 +8,21 @@
  */
 package io.ran;
 
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.util.CheckClassAdapter;
-
 import javax.inject.Inject;
-import java.io.PrintWriter;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class AutoWrapper {
 	private static Map<String, Class> wrapped = new HashMap<>();
 	private static AutoMapperClassLoader classLoader = new AutoMapperClassLoader(AutoMapper.class.getClassLoader());
+	// Wrappers defined in the class loader of the class they are generated next to are kept on that class
+	private static ClassValue<Map<String, Class>> wrappedWithLookup = new ClassValue<Map<String, Class>>() {
+		@Override
+		protected Map<String, Class> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
 
 	private AutoWrapperGenericFactory factory;
 
@@ -35,18 +39,18 @@ public class AutoWrapper {
 	}
 
 	public <W> Class<W> wrapToClassWithFactoryInjector(String className, Class<W> interfaceClass, Class<? extends AutoWrappedFactory> factory, String identifier) {
-		return wrapped.computeIfAbsent(className, c -> {
+		return registry(interfaceClass, className).computeIfAbsent(className, c -> {
 			try {
 //				Path path = Paths.get("/tmp/" + className + "$Ran$Wrapper.class");
 
+				long started = System.nanoTime();
 				AutoWrapperWriter<W, W> visitor = new AutoWrapperWriter<>(className, interfaceClass, interfaceClass, factory, identifier);
-				byte[] bytes = visitor.toByteArray();
+				byte[] bytes = GenerationSettings.generated(visitor.getName(), started, visitor.toByteArray());
 //				try(FileOutputStream outputStream = new FileOutputStream(path.toFile())) {
 //					outputStream.write(bytes);
 //				}
 
-				CheckClassAdapter.verify(new ClassReader(bytes), false, new PrintWriter(System.out));
-				return classLoader.define(visitor.getName(), bytes);
+				return define(interfaceClass, visitor.getName(), bytes);
 			} catch (Exception e) {
 				throw new RuntimeException(e);
 			}
@@ -54,17 +58,28 @@ public class AutoWrapper {
 	}
 
 	public <T, W extends T> Class<W> wrapToClass(Class<W> wc, Class<T> tc) {
-		return wrapped.computeIfAbsent(wc.getName(), c -> {
+		return registry(tc, tc.getName()).computeIfAbsent(wc.getName(), c -> {
 			try {
 //				Path path = Paths.get("/tmp/" + wc.getSimpleName() + "Wrapper.class");
 
+				long started = System.nanoTime();
 				AutoWrapperWriter visitor = new AutoWrapperWriter<W, T>(tc, wc);
-				byte[] bytes = visitor.toByteArray();
-				CheckClassAdapter.verify(new ClassReader(bytes), false, new PrintWriter(System.out));
-				return classLoader.define(visitor.getName(), bytes);
+				byte[] bytes = GenerationSettings.generated(visitor.getName(), started, visitor.toByteArray());
+				return define(tc, visitor.getName(), bytes);
 			} catch (Exception e) {
 				throw new RuntimeException(e);
 			}
 		});
 	}
+
+	private static Map<String, Class> registry(Class<?> host, String className) {
+		return GenerationSettings.definesWithLookup(host, className) ? wrappedWithLookup.get(host) : wrapped;
+	}
+
+	private static Class define(Class<?> host, String className, byte[] bytes) {
+		if (GenerationSettings.definesWithLookup(host, className)) {
+			return LookupClassDefiner.define(host, className, bytes);
+		}
+		return classLoader.define(className, bytes);
+	}
 }
@@ -29,6 +29,7 @@ public class AutoWrapperWriter<WRAPPER extends WRAPPEE, WRAPPEE> extends AutoMap
 		postFix = "$Ran$Wrapper";
 		this.wrappeeClass = Clazz.of(wrappee);
 		wrapperGenerated = Clazz.of(className);
+		this.name = className.replace('/', '.');
 		this.superClazz = this.wrapperClazz.isInterface() ? Clazz.of(Object.class) : this.wrapperClazz;
 		visit(Opcodes.V1_8
 				, Access.Public.getOpCode()
@@ -0,0 +1,78 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+// Bit operations on the changed property bits of generated mappers, with one bit per property ordinal.
+// The bits are left null until the first change, so unchanged instances don't allocate.
+public class ChangedProperties {
+	public static long[] set(long[] bits, int ordinal) {
+		int word = ordinal >>> 6;
+		if (bits == null) {
+			bits = new long[word + 1];
+		} else if (bits.length <= word) {
+			long[] grown = new long[word + 1];
+			System.arraycopy(bits, 0, grown, 0, bits.length);
+			bits = grown;
+		}
+		bits[word] |= 1L << ordinal;
+		return bits;
+	}
+
+	public static boolean isSet(long[] bits, int ordinal) {
+		int word = ordinal >>> 6;
+		return bits != null && ordinal >= 0 && word < bits.length && (bits[word] & 1L << ordinal) != 0;
+	}
+
+	public static boolean isSet(long[] bits, Property property, Class<?> type) {
+		if (bits == null) {
+			return false;
+		}
+		int ordinal = property.ordinal(type);
+		if (ordinal < 0) {
+			Property described = TypeDescriberImpl.getTypeDescriber(type).fields().get(property.getSnakeCase());
+			ordinal = described != null ? described.ordinal(type) : -1;
+		}
+		return isSet(bits, ordinal);
+	}
+
+	// Copies the bits into the target array when it has the same length, so copying onto a reused instance doesn't allocate
+	public static long[] copy(long[] bits, long[] target) {
+		if (bits == null) {
+			return null;
+		}
+		if (target == null || target.length != bits.length) {
+			return bits.clone();
+		}
+		System.arraycopy(bits, 0, target, 0, bits.length);
+		return target;
+	}
+
+	public static boolean any(long[] bits) {
+		if (bits != null) {
+			for (long word : bits) {
+				if (word != 0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	public static Property.PropertyList list(long[] bits, Class<?> type) {
+		Property.PropertyList changed = Property.list();
+		if (any(bits)) {
+			for (Property property : TypeDescriberImpl.getTypeDescriber(type).fields()) {
+				if (isSet(bits, property.ordinal(type))) {
+					changed.add(property);
+				}
+			}
+		}
+		return changed;
+	}
+}
@@ -0,0 +1,98 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Modifier;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+public class ClassScanner {
+	private ClassLoader classLoader;
+
+	public ClassScanner(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+	public List<Class<?>> scan(String packageName) {
+		String path = packageName.replace('.', '/');
+		List<String> classNames = new ArrayList<>();
+		try {
+			Enumeration<URL> resources = classLoader.getResources(path);
+			while (resources.hasMoreElements()) {
+				URL resource = resources.nextElement();
+				if ("file".equals(resource.getProtocol())) {
+					scanDirectory(new File(URLDecoder.decode(resource.getFile(), "UTF-8")), packageName, classNames);
+				} else if ("jar".equals(resource.getProtocol())) {
+					scanJar(((JarURLConnection) resource.openConnection()).getJarFile(), path, classNames);
+				}
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Could not scan package: " + packageName, e);
+		}
+		Collections.sort(classNames);
+
+		List<Class<?>> classes = new ArrayList<>();
+		for (String className : classNames) {
+			try {
+				Class<?> clazz = Class.forName(className, false, classLoader);
+				if (isCandidate(clazz)) {
+					classes.add(clazz);
+				}
+			} catch (ClassNotFoundException | LinkageError e) {
+				// Classes that cannot be loaded cannot be models either
+			}
+		}
+		return classes;
+	}
+
+	private void scanDirectory(File directory, String packageName, List<String> classNames) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			if (file.isDirectory()) {
+				scanDirectory(file, packageName + "." + file.getName(), classNames);
+			} else if (file.getName().endsWith(".class")) {
+				classNames.add(packageName + "." + file.getName().substring(0, file.getName().length() - ".class".length()));
+			}
+		}
+	}
+
+	private void scanJar(JarFile jarFile, String path, List<String> classNames) {
+		Enumeration<JarEntry> entries = jarFile.entries();
+		while (entries.hasMoreElements()) {
+			String name = entries.nextElement().getName();
+			if (name.startsWith(path + "/") && name.endsWith(".class")) {
+				classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+			}
+		}
+	}
+
+	private static boolean isCandidate(Class<?> clazz) {
+		int modifiers = clazz.getModifiers();
+		if (clazz.isInterface() || clazz.isEnum() || clazz.isAnnotation() || clazz.isSynthetic()
+				|| clazz.isAnonymousClass() || clazz.isLocalClass() || Modifier.isAbstract(modifiers) || !Modifier.isPublic(modifiers)) {
+			return false;
+		}
+		if (clazz.getEnclosingClass() != null && !Modifier.isStatic(modifiers)) {
+			return false;
+		}
+		return !clazz.getName().contains("$Ran$") && clazz.getConstructors().length > 0;
+	}
+}
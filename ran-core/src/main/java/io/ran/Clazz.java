@@ -139,8 +139,8 @@ public class Clazz<T> {
 		if (isPrimitive()) {
 			return Primitives.get(clazz).getDescriptor();
 		}
-		if (clazz == byte[].class) {
-			return "[B";
+		if (clazz.isArray()) {
+			return getInternalName();
 		}
 		return "L" + getInternalName() + ";";
 	}
@@ -149,8 +149,8 @@ public class Clazz<T> {
 		if (isPrimitive()) {
 			return Primitives.get(clazz).getDescriptor();
 		}
-		if (clazz == byte[].class) {
-			return "[B";
+		if (clazz.isArray()) {
+			return getInternalName();
 		}
 		return "L" + getInternalName() + (generics.isEmpty() ? "" : "<" + (generics.stream().map(Clazz::getSignature).collect(Collectors.joining())) + ">") + ";";
 	}
@@ -315,13 +315,19 @@ public class Clazz<T> {
 	private Property.PropertyList getFields(boolean includeNonProperties) {
 		Property.PropertyList fields = Property.list();
 
+		// Ordinals follow getPropertyFields(), which is the order the generated mappers dispatch on
+		int ordinal = 0;
 		for (Field field : getFields()) {
+			int fieldOrdinal = isPropertyField(field) ? ordinal++ : -1;
 			if (isPublicStatic(field) || !includeNonProperties && !isPropertyField(field)) {
 				continue;
 			}
 			Token token = Token.camelHump(field.getName());
 			Clazz<?> fieldType = Clazz.of(field);
 			Property<?> property = Property.get(token, fieldType);
+			if (fieldOrdinal >= 0) {
+				property.setOrdinal(clazz, fieldOrdinal);
+			}
 			Key[] keys = field.getAnnotationsByType(Key.class);
 			Arrays.asList(keys).forEach(key -> {
 				property.addKey(new KeyInfo(false, property, key.name(), key.order(), key.unique()));
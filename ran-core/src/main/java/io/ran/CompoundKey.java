@@ -11,7 +11,15 @@ package io.ran;
 import io.ran.token.Token;
 
 public class CompoundKey {
-	protected Property.PropertyValueList values = new Property.PropertyValueList<>();
+	protected Property.PropertyValueList values;
+
+	public CompoundKey() {
+		this(new Property.PropertyValueList<>());
+	}
+
+	protected CompoundKey(Property.PropertyValueList values) {
+		this.values = values;
+	}
 
 	public static CompoundKey get() {
 		return new CompoundKey();
@@ -36,13 +44,14 @@ public class CompoundKey {
 	@Override
 	public boolean equals(Object o) {
 		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
+		if (!(o instanceof CompoundKey)) return false;
 
-		CompoundKey that = (CompoundKey) o;
-		if (values.size() != that.values.size()) {
+		Property.PropertyValueList thisValues = getValues();
+		Property.PropertyValueList thatValues = ((CompoundKey) o).getValues();
+		if (thisValues.size() != thatValues.size()) {
 			return false;
 		}
-		return values.containsAll(that.values);
+		return thisValues.containsAll(thatValues);
 	}
 
 	@Override
@@ -0,0 +1,42 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+// Deep copies of the mutable values generated mappers copy with Mapping.copyFrom(from, withRelations, true)
+public class Copies {
+	public static byte[] copy(byte[] bytes) {
+		return bytes != null ? bytes.clone() : null;
+	}
+
+	public static <T> Collection<T> copy(Collection<T> collection) {
+		if (collection == null) {
+			return null;
+		}
+		if (collection instanceof SortedSet) {
+			return new TreeSet<>((SortedSet<T>) collection);
+		}
+		if (collection instanceof Set) {
+			return new LinkedHashSet<>(collection);
+		}
+		return new ArrayList<>(collection);
+	}
+
+	// The collection types a copy is assignable to, other field types are copied by reference
+	static boolean isCopyable(Class<?> fieldType) {
+		return fieldType == Collection.class || fieldType == List.class || fieldType == Set.class || fieldType == SortedSet.class;
+	}
+}
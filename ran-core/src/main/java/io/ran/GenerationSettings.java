@@ -0,0 +1,62 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.util.CheckClassAdapter;
+
+import java.io.PrintWriter;
+
+public class GenerationSettings {
+	public static final String MODE_PROPERTY = "ran.generation.mode";
+	public static final String REPORT_PROPERTY = "ran.generation.report";
+	public static final String LOOKUP_PROPERTY = "ran.generation.lookup";
+	private static volatile GenerationMode mode = GenerationMode.of(System.getProperty(MODE_PROPERTY));
+	private static volatile boolean defineWithLookup = Boolean.getBoolean(LOOKUP_PROPERTY);
+	private static volatile GenerationListener listener = Boolean.getBoolean(REPORT_PROPERTY) ? GenerationListener.SYSTEM_OUT : GenerationListener.NONE;
+
+	public static GenerationMode getMode() {
+		return mode;
+	}
+
+	public static void setMode(GenerationMode mode) {
+		GenerationSettings.mode = mode;
+	}
+
+	public static boolean isDefineWithLookup() {
+		return defineWithLookup;
+	}
+
+	// Defines generated classes in the model's own class loader, so they can be unloaded with it. Needs Java 9 or later,
+	// on older versions the shared generated class loader is used.
+	public static void setDefineWithLookup(boolean defineWithLookup) {
+		GenerationSettings.defineWithLookup = defineWithLookup;
+	}
+
+	static boolean definesWithLookup(Class<?> host, String className) {
+		return defineWithLookup && LookupClassDefiner.canDefine(host, className);
+	}
+
+	public static GenerationListener getListener() {
+		return listener;
+	}
+
+	public static void setListener(GenerationListener listener) {
+		GenerationSettings.listener = listener != null ? listener : GenerationListener.NONE;
+	}
+
+	static byte[] generated(String className, long generationStarted, byte[] bytes) {
+		long generated = System.nanoTime();
+		if (mode.verifies()) {
+			CheckClassAdapter.verify(new ClassReader(bytes), false, new PrintWriter(System.out));
+		}
+		listener.generated(className, generated - generationStarted, System.nanoTime() - generated);
+		return bytes;
+	}
+}
@@ -8,9 +8,16 @@
  */
 package io.ran;
 
+import java.util.function.Supplier;
+
 public interface GenericFactory {
 	<T> T get(Class<T> clazz);
 
+	// Used when many instances of the same type are created, implementations can resolve the binding once here
+	default <T> Supplier<T> getProvider(Class<T> clazz) {
+		return () -> get(clazz);
+	}
+
 	<T> T getQueryInstance(Class<T> clazz);
 
 	DbResolver<DbType> getResolver(Class<? extends DbType> dbTypeClass);
@@ -12,8 +12,9 @@ import io.ran.token.Token;
 
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.TreeSet;
 import java.util.function.Consumer;
@@ -24,6 +25,8 @@ public class KeySet {
 	private boolean primary;
 	private String name;
 	TreeSet<Field> parts = new TreeSet<>(Comparator.comparing(Field::getOrder));
+	private boolean frozen = false;
+	private Compiled compiled = null;
 
 	public KeySet(List<Field> fields) {
 		fields.forEach(this::add);
@@ -47,15 +50,58 @@ public class KeySet {
 	}
 
 	public Field get(Token token) {
-		return parts.stream().filter(f -> f.getToken().equals(token)).findFirst().orElseThrow(() -> new RuntimeException("Non existing field in key: " + token.toString()));
+		Field field = compiled().byToken.get(token);
+		if (field == null) {
+			throw new RuntimeException("Non existing field in key: " + token.toString());
+		}
+		return field;
+	}
+
+	// Makes the key set immutable, so its array form is built once and shared by all readers
+	public KeySet freeze() {
+		compiled();
+		frozen = true;
+		return this;
+	}
+
+	public boolean isFrozen() {
+		return frozen;
+	}
+
+	// The properties of the key in key order. The array is shared, so it must not be modified
+	public Property<?>[] properties() {
+		return compiled().properties;
+	}
+
+	private Compiled compiled() {
+		Compiled compiled = this.compiled;
+		if (compiled == null) {
+			compiled = new Compiled(parts);
+			this.compiled = compiled;
+		}
+		return compiled;
+	}
+
+	private void modify() {
+		if (frozen) {
+			throw new UnsupportedOperationException("Frozen key sets can not be modified");
+		}
+		compiled = null;
+	}
+
+	void clear() {
+		modify();
+		parts.clear();
 	}
 
 	public KeySet add(KeySet keys) {
+		modify();
 		parts.addAll(keys.parts);
 		return this;
 	}
 
 	public KeySet add(Field field) {
+		modify();
 		if (field.order == -1) {
 			field.order = parts.size() - 1;
 		}
@@ -83,6 +129,7 @@ public class KeySet {
 			this.name = name;
 		}
 
+		modify();
 		Field field = new Field(property, order == -1 ? parts.size() : order);
 		if (parts.contains(field)) {
 			throw new RuntimeException(order + " position was already used in key. Ensure your key orders are unique.");
@@ -100,7 +147,11 @@ public class KeySet {
 	}
 
 	public Field get(int i) {
-		return parts.stream().skip(i).findFirst().orElseThrow(() -> new RuntimeException("Could not find  index" + i + " in key set"));
+		Field[] fields = compiled().fields;
+		if (i < 0 || i >= fields.length) {
+			throw new RuntimeException("Could not find  index" + i + " in key set");
+		}
+		return fields[i];
 	}
 
 	public Stream<Field> stream() {
@@ -113,6 +164,7 @@ public class KeySet {
 
 	public KeySet add(KeyInfo keyInfo) {
 		if (keyInfo.isPrimary()) {
+			modify();
 			primary = true;
 		}
 		add(keyInfo.getProperty(), keyInfo.getName(), keyInfo.order());
@@ -120,10 +172,12 @@ public class KeySet {
 	}
 
 	public void setPrimary(boolean primary) {
+		modify();
 		this.primary = primary;
 	}
 
 	public void setName(String name) {
+		modify();
 		this.name = name;
 	}
 
@@ -139,13 +193,22 @@ public class KeySet {
 		if (this == o) return true;
 		if (o == null || getClass() != o.getClass()) return false;
 		KeySet keySet = (KeySet) o;
-		if (parts.size() != keySet.parts.size()) return false;
-		Iterator<Field> itt1 = parts.iterator();
-		Iterator<Field> itt2 = keySet.parts.iterator();
-		while (itt1.hasNext()) {
-			if (!itt1.next().equals(itt2.next())) return false;
+		return Arrays.equals(compiled().fields, keySet.compiled().fields);
+	}
+
+	private static class Compiled {
+		private final Field[] fields;
+		private final Property<?>[] properties;
+		private final Map<Token, Field> byToken = new HashMap<>();
+
+		private Compiled(TreeSet<Field> parts) {
+			fields = parts.toArray(new Field[0]);
+			properties = new Property<?>[fields.length];
+			for (int i = 0; i < fields.length; i++) {
+				properties[i] = fields[i].getProperty();
+				byToken.putIfAbsent(fields[i].getToken(), fields[i]);
+			}
 		}
-		return true;
 	}
 
 	public static class Field {
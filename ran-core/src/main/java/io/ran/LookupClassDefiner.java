@@ -0,0 +1,58 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+// Defines generated classes in the class loader and package of a host class through MethodHandles.Lookup,
+// so they can be unloaded together with it. Only available from Java 9, which is why it is called reflectively.
+class LookupClassDefiner {
+	private static final Method privateLookupIn = findMethod(MethodHandles.class, "privateLookupIn", Class.class, MethodHandles.Lookup.class);
+	private static final Method defineClass = findMethod(MethodHandles.Lookup.class, "defineClass", byte[].class);
+
+	private static Method findMethod(Class<?> owner, String name, Class<?>... parameterTypes) {
+		try {
+			return owner.getMethod(name, parameterTypes);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	static boolean isSupported() {
+		return privateLookupIn != null && defineClass != null;
+	}
+
+	static boolean canDefine(Class<?> host, String className) {
+		return isSupported() && host.getClassLoader() != null && packageOf(host.getName()).equals(packageOf(className.replace('/', '.')));
+	}
+
+	static synchronized Class<?> define(Class<?> host, String className, byte[] bytes) {
+		try {
+			// Already defined by an earlier generation, or precompiled next to the host
+			return Class.forName(className, false, host.getClassLoader());
+		} catch (ClassNotFoundException e) {
+			// Not there, so define it
+		}
+		try {
+			Object lookup = privateLookupIn.invoke(null, host, MethodHandles.lookup());
+			return (Class<?>) defineClass.invoke(lookup, (Object) bytes);
+		} catch (InvocationTargetException e) {
+			throw new RuntimeException("Could not define " + className + " in " + host.getName() + "'s class loader", e.getCause());
+		} catch (IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String packageOf(String className) {
+		int lastDot = className.lastIndexOf('.');
+		return lastDot < 0 ? "" : className.substring(0, lastDot);
+	}
+}
@@ -0,0 +1,158 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.token.Token;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Optional;
+
+public class MapperCache {
+	private Path directory;
+
+	public MapperCache(Path directory) {
+		this.directory = directory;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	public Optional<MapperGenerator.Bytecode> get(Class<?> modelClass) {
+		Optional<Path> entry = entry(modelClass);
+		if (!entry.isPresent()) {
+			return Optional.empty();
+		}
+		String mappingName = modelClass.getName() + MappingClassWriter.POSTFIX;
+		String queryName = modelClass.getName() + QueryClassWriter.POSTFIX;
+		Path mapping = entry.get().resolve(mappingName + ".class");
+		Path query = entry.get().resolve(queryName + ".class");
+		if (!Files.exists(mapping) || !Files.exists(query)) {
+			return Optional.empty();
+		}
+		try {
+			return Optional.of(new MapperGenerator.Bytecode(mappingName, Files.readAllBytes(mapping), queryName, Files.readAllBytes(query)));
+		} catch (IOException e) {
+			return Optional.empty();
+		}
+	}
+
+	public void put(Class<?> modelClass, MapperGenerator.Bytecode bytecode) {
+		Optional<Path> entry = entry(modelClass);
+		if (!entry.isPresent()) {
+			return;
+		}
+		try {
+			Files.createDirectories(entry.get());
+			write(entry.get(), bytecode.getMappingName(), bytecode.getMapping());
+			write(entry.get(), bytecode.getQueryName(), bytecode.getQuery());
+		} catch (IOException e) {
+			System.out.println("Could not write mapper cache for " + modelClass.getName() + ": " + e.toString());
+		}
+	}
+
+	private void write(Path entry, String className, byte[] bytes) throws IOException {
+		Path target = entry.resolve(className + ".class");
+		// Written to a temporary file first, so processes sharing the directory never read a partial class file
+		Path temporary = Files.createTempFile(entry, className, ".tmp");
+		try {
+			Files.write(temporary, bytes);
+			Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	Optional<Path> entry(Class<?> modelClass) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(MapperGenerator.VERSION.getBytes(StandardCharsets.UTF_8));
+			digest.update(Generator.DIGEST.getBytes(StandardCharsets.UTF_8));
+			Class<?> working = modelClass;
+			while (working != null && working != Object.class) {
+				Optional<byte[]> bytes = readClass(working);
+				if (!bytes.isPresent()) {
+					return Optional.empty();
+				}
+				digest.update(working.getName().getBytes(StandardCharsets.UTF_8));
+				digest.update(bytes.get());
+				working = working.getSuperclass();
+			}
+			return Optional.of(directory.resolve(modelClass.getName() + "-" + hex(digest.digest())));
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e); // SHA-256 is required to be present on every JVM
+		}
+	}
+
+	// Snapshot builds of ran share a version, so cached classes are also keyed by the classes that generate them.
+	// Only computed once a cache is used
+	private static class Generator {
+		private static final String DIGEST = digest();
+
+		private static String digest() {
+			try {
+				StringBuilder generators = new StringBuilder();
+				for (Class<?> generator : new Class[]{MapperGenerator.class, AutoMapperClassWriter.class, MappingClassWriter.class, QueryClassWriter.class, MethodWriter.class,
+						MethodSignature.class, Clazz.class, ClazzMethod.class, Primitives.class, Access.class, TypeDescriberImpl.class, Property.class, KeySet.class,
+						KeySets.class, RelationDescriber.class, ChangedProperties.class, Copies.class, CompoundKey.class, PrimaryCompoundKey.class, Mapping.class,
+						QueryWrapper.class, ObjectMapColumnizer.class, ObjectMapHydrator.class, Token.class}) {
+					generators.append(readClass(generator).map(MapperCache::hash).orElse(generator.getName()));
+				}
+				return hash(generators.toString().getBytes(StandardCharsets.UTF_8));
+			} catch (RuntimeException e) {
+				return "";
+			}
+		}
+	}
+
+	static Optional<byte[]> readClass(Class<?> clazz) {
+		ClassLoader classLoader = clazz.getClassLoader();
+		if (classLoader == null) {
+			return Optional.empty();
+		}
+		try (InputStream inputStream = classLoader.getResourceAsStream(clazz.getName().replace('.', '/') + ".class")) {
+			if (inputStream == null) {
+				return Optional.empty();
+			}
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = inputStream.read(buffer)) != -1) {
+				outputStream.write(buffer, 0, read);
+			}
+			return Optional.of(outputStream.toByteArray());
+		} catch (IOException e) {
+			return Optional.empty();
+		}
+	}
+
+	static String hash(byte[] bytes) {
+		try {
+			return hex(MessageDigest.getInstance("SHA-256").digest(bytes));
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	static String hex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+}
@@ -8,36 +8,114 @@
  */
 package io.ran;
 
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.util.CheckClassAdapter;
-
-import java.io.PrintWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.Properties;
 
 public class MapperGenerator {
+	public static final String CACHE_DIRECTORY_PROPERTY = "ran.mapper.cacheDirectory";
+	// Must be incremented whenever a change to ran changes the generated mapper or query classes
+	static final int GENERATOR_REVISION = 1;
+	// Identifies the generator, so classes generated by another version of ran are never picked up
+	public static final String VERSION = version();
+	private MapperCache cache;
+
+	public MapperGenerator() {
+		this(Optional.ofNullable(System.getProperty(CACHE_DIRECTORY_PROPERTY)).map(Paths::get).orElse(null));
+	}
+
+	public MapperGenerator(Path cacheDirectory) {
+		setCacheDirectory(cacheDirectory);
+	}
+
+	public void setCacheDirectory(Path cacheDirectory) {
+		this.cache = cacheDirectory != null ? new MapperCache(cacheDirectory) : null;
+	}
+
 	public Wrapped generate(AutoMapperClassLoader classLoader, Clazz clazz) {
 		try {
-//			Path path = Paths.get("/tmp/ran/"+clazz.getSimpleName()+"$Ran$Mapper.class");
-//			Path pathQuery = Paths.get("/tmp/ran/"+clazz.getSimpleName()+"$Ran$Query.class");
+			return define(classLoader, getBytecode(clazz));
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
 
-			MappingClassWriter visitor = new MappingClassWriter(clazz.clazz);
-			byte[] bytes = visitor.toByteArray();
-//			Files.write(path, bytes);
-			CheckClassAdapter.verify(new ClassReader(bytes), false, new PrintWriter(System.out));
+	public Bytecode getBytecode(Clazz clazz) {
+		if (cache == null) {
+			return generateBytecode(clazz);
+		}
+		return cache.get(clazz.clazz).orElseGet(() -> {
+			Bytecode bytecode = generateBytecode(clazz);
+			cache.put(clazz.clazz, bytecode);
+			return bytecode;
+		});
+	}
 
+	public Bytecode generateBytecode(Clazz clazz) {
+		long started = System.nanoTime();
+		MappingClassWriter visitor = new MappingClassWriter(clazz.clazz);
+		byte[] bytes = GenerationSettings.generated(visitor.getName(), started, visitor.toByteArray());
 
-			QueryClassWriter visitor2 = new QueryClassWriter(clazz.clazz);
-			byte[] bytes2 = visitor2.toByteArray();
-			CheckClassAdapter.verify(new ClassReader(bytes2), false, new PrintWriter(System.out));
-//			Files.write(pathQuery, bytes2);
+		started = System.nanoTime();
+		QueryClassWriter visitor2 = new QueryClassWriter(clazz.clazz);
+		byte[] bytes2 = GenerationSettings.generated(visitor2.getName(), started, visitor2.toByteArray());
+
+		return new Bytecode(visitor.getName(), bytes, visitor2.getName(), bytes2);
+	}
 
+	public Wrapped define(AutoMapperClassLoader classLoader, Bytecode bytecode) {
+		return new Wrapped(classLoader.define(bytecode.mappingName, bytecode.mapping), classLoader.define(bytecode.queryName, bytecode.query));
+	}
 
-			return new Wrapped(classLoader.define(visitor.getName(), bytes), classLoader.define(visitor2.getName(), bytes2));
+	public Wrapped defineWithLookup(Class<?> modelClass, Bytecode bytecode) {
+		return new Wrapped(LookupClassDefiner.define(modelClass, bytecode.mappingName, bytecode.mapping), LookupClassDefiner.define(modelClass, bytecode.queryName, bytecode.query));
+	}
 
-		} catch (Exception e) {
-			throw new RuntimeException(e);
+	public Optional<Wrapped> findPrecompiled(Class<?> modelClass) {
+		ClassLoader modelClassLoader = modelClass.getClassLoader();
+		if (modelClassLoader == null) {
+			return Optional.empty();
+		}
+		try {
+			Class<?> mapping = Class.forName(modelClass.getName() + MappingClassWriter.POSTFIX, false, modelClassLoader);
+			Class<?> query = Class.forName(modelClass.getName() + QueryClassWriter.POSTFIX, false, modelClassLoader);
+			if (mapping.getSuperclass() != modelClass || !Mapping.class.isAssignableFrom(mapping)
+					|| query.getSuperclass() != modelClass || !QueryWrapper.class.isAssignableFrom(query)
+					|| !generatedByThisVersion(mapping) || !generatedByThisVersion(query)) {
+				return Optional.empty();
+			}
+			return Optional.of(new Wrapped(mapping, query));
+		} catch (ClassNotFoundException e) {
+			return Optional.empty();
 		}
 	}
 
+	private static boolean generatedByThisVersion(Class<?> generated) {
+		GeneratedMapping generatedMapping = generated.getAnnotation(GeneratedMapping.class);
+		return generatedMapping != null && VERSION.equals(generatedMapping.version());
+	}
+
+	// Read from the properties written when ran is built, so it is the same wherever and however ran ends up on the classpath
+	private static String version() {
+		String version = null;
+		try (InputStream properties = MapperGenerator.class.getResourceAsStream("ran.properties")) {
+			if (properties != null) {
+				Properties ran = new Properties();
+				ran.load(properties);
+				version = ran.getProperty("version");
+			}
+		} catch (IOException | RuntimeException e) {
+			version = null;
+		}
+		if (version == null || version.startsWith("${")) {
+			version = MapperGenerator.class.getPackage() != null ? MapperGenerator.class.getPackage().getImplementationVersion() : null;
+		}
+		return (version != null ? version : "unknown") + "-" + GENERATOR_REVISION;
+	}
+
 	public static class Wrapped {
 		Class mapping;
 		Class query;
@@ -48,4 +126,34 @@ public class MapperGenerator {
 		}
 	}
 
+	public static class Bytecode {
+		String mappingName;
+		byte[] mapping;
+		String queryName;
+		byte[] query;
+
+		public Bytecode(String mappingName, byte[] mapping, String queryName, byte[] query) {
+			this.mappingName = mappingName;
+			this.mapping = mapping;
+			this.queryName = queryName;
+			this.query = query;
+		}
+
+		public String getMappingName() {
+			return mappingName;
+		}
+
+		public byte[] getMapping() {
+			return mapping;
+		}
+
+		public String getQueryName() {
+			return queryName;
+		}
+
+		public byte[] getQuery() {
+			return query;
+		}
+	}
+
 }
@@ -0,0 +1,71 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MapperPrecompiler {
+	private MapperGenerator mapperGenerator = new MapperGenerator();
+	private Path outputDirectory;
+	private ClassLoader classLoader;
+
+	public MapperPrecompiler(Path outputDirectory, ClassLoader classLoader) {
+		this.outputDirectory = outputDirectory;
+		this.classLoader = classLoader;
+	}
+
+	public static void main(String[] args) throws IOException, ClassNotFoundException {
+		if (args.length < 2) {
+			System.out.println("Usage: MapperPrecompiler <output directory> <model class or package.*>...");
+			System.exit(1);
+		}
+		MapperPrecompiler precompiler = new MapperPrecompiler(Paths.get(args[0]), Thread.currentThread().getContextClassLoader());
+		for (int i = 1; i < args.length; i++) {
+			for (Class<?> precompiled : precompiler.precompile(args[i])) {
+				System.out.println("Precompiled mappers for: " + precompiled.getName());
+			}
+		}
+	}
+
+	public List<Class<?>> precompile(String classOrPackage) throws IOException, ClassNotFoundException {
+		List<Class<?>> precompiled = new ArrayList<>();
+		if (classOrPackage.endsWith(".*")) {
+			for (Class<?> modelClass : new ClassScanner(classLoader).scan(classOrPackage.substring(0, classOrPackage.length() - 2))) {
+				try {
+					precompile(modelClass);
+					precompiled.add(modelClass);
+				} catch (RuntimeException e) {
+					System.out.println("Skipping " + modelClass.getName() + ": " + e.getMessage());
+				}
+			}
+		} else {
+			Class<?> modelClass = Class.forName(classOrPackage, false, classLoader);
+			precompile(modelClass);
+			precompiled.add(modelClass);
+		}
+		return precompiled;
+	}
+
+	public void precompile(Class<?> modelClass) throws IOException {
+		MapperGenerator.Bytecode bytecode = mapperGenerator.generateBytecode(Clazz.of(modelClass));
+		write(bytecode.getMappingName(), bytecode.getMapping());
+		write(bytecode.getQueryName(), bytecode.getQuery());
+	}
+
+	private void write(String className, byte[] bytes) throws IOException {
+		Path path = outputDirectory.resolve(className.replace('.', '/') + ".class");
+		Files.createDirectories(path.getParent());
+		Files.write(path, bytes);
+	}
+}
@@ -27,6 +27,8 @@ public interface Mapping {
 
 	void columnize(Object obj, ObjectMapColumnizer columnizer);
 
+	void columnizeChanged(ObjectMapColumnizer columnizer);
+
 	CompoundKey _getKey();
 
 	CompoundKey _getKey(Object obj);
@@ -45,7 +47,15 @@ public interface Mapping {
 
 	boolean _isChanged();
 
+	boolean _isChanged(Property property);
+
+	Property.PropertyList _getChangedProperties();
+
+	void _resetChanged();
+
 	TypeDescriber _getDescriber();
 
 	void copy(Object from, Object to);
+
+	void copyFrom(Object from, boolean withRelations, boolean deep);
 }
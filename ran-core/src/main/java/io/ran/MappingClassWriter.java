@@ -16,6 +16,7 @@ import javax.inject.Inject;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -24,23 +25,21 @@ import java.util.List;
 import java.util.Optional;
 
 public class MappingClassWriter extends AutoMapperClassWriter {
+	public static final String POSTFIX = "$Ran$Mapper";
 	Clazz mapperClazz;
 
 	public MappingClassWriter(Class clazz) {
 		super(clazz);
 		try {
-			postFix = "$Ran$Mapper";
+			postFix = POSTFIX;
+			this.name = this.wrapperClazz.getInternalName().replace('/', '.') + postFix;
+			this.shortName = clazz.getSimpleName() + postFix;
 			mapperClazz = Clazz.of(this.wrapperClazz.getInternalName() + postFix);
 			visit(Opcodes.V1_8, Access.Public.getOpCode(), this.wrapperClazz.getInternalName() + postFix, this.wrapperClazz.generics.isEmpty() ? null : this.wrapperClazz.getSignature(), this.wrapperClazz.getInternalName(), new String[]{Clazz.of(Mapping.class).getInternalName()});
-			field(Access.Private, "_changed", Clazz.of(boolean.class), false);
+			addAnnotation(Clazz.of(GeneratedMapping.class), true, "version", MapperGenerator.VERSION);
+			field(Access.Private, "_changed", Clazz.of(long[].class), null);
 			field(Access.Private, "typeDescriber", Clazz.of(TypeDescriberImpl.class), null);
 
-			MethodWriter w = method(Access.Public, new MethodSignature(mapperClazz, "_isChanged", Clazz.of(boolean.class)));
-			w.load(0);
-			w.getField(mapperClazz, "_changed", Clazz.of(boolean.class));
-			w.returnPrimitive(Clazz.of(boolean.class));
-			w.end();
-
 			for (Constructor c : Arrays.asList(clazz.getConstructors())) {
 				MethodWriter mw = method(Access.of(c.getModifiers()), new MethodSignature(c));
 				int i = 0;
@@ -73,13 +72,16 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 		createGetValue();
 		createSetValue();
 		createOther();
+		createPropertyConstants();
 		createHydrator();
 		createKeyGetter();
 		createSetRelation();
 		createGetRelation();
 		createSetRelationNotLoaded();
 		createSetterWrappers();
+		createChangeTracking();
 		createCopy();
+		createCopyFrom();
 	}
 
 	private void createCopy() {
@@ -108,6 +110,81 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 		}
 	}
 
+	// Copies into this instance without going through the setter wrappers, and takes over the changed properties
+	// and, when asked to, the loaded relations of the source if it is a mapper instance as well
+	private void createCopyFrom() {
+		try {
+			MethodWriter w = method(Access.Public, new MethodSignature(Mapping.class.getMethod("copyFrom", Object.class, boolean.class, boolean.class)));
+			w.defineVar("this", 0);
+			w.defineVar("from", 1);
+			w.load("from");
+			w.cast(wrapperClazz);
+			w.objectVar("fromTyped");
+			for (Field field : wrapperClazz.getPropertyFields()) {
+				w.load("this");
+				w.load("fromTyped");
+				w.invoke(new MethodSignature(getGetter(field, Token.camelHump(field.getName()))));
+				if (field.getType() == byte[].class) {
+					w.load(3, Clazz.of(boolean.class));
+					w.ifThen(c -> c.invoke(Copies.class.getMethod("copy", byte[].class)));
+				} else if (Copies.isCopyable(field.getType())) {
+					w.load(3, Clazz.of(boolean.class));
+					w.ifThen(c -> {
+						c.invoke(Copies.class.getMethod("copy", Collection.class));
+						c.cast(Clazz.of(field.getType()));
+					});
+				}
+				int modifiers = field.getModifiers();
+				if ((Modifier.isPublic(modifiers) || Modifier.isProtected(modifiers)) && !Modifier.isFinal(modifiers)) {
+					w.putfield(Clazz.of(field.getDeclaringClass()), field.getName(), Clazz.of(field.getType()));
+				} else {
+					w.invokeSuper(new MethodSignature(getSetter(field)));
+				}
+			}
+			w.load("from");
+			w.ifInstanceOf(mapperClazz, i -> {
+				i.load("this");
+				i.load("from");
+				i.cast(mapperClazz);
+				i.getField(mapperClazz, "_changed", Clazz.of(long[].class));
+				i.load("this");
+				i.getField(mapperClazz, "_changed", Clazz.of(long[].class));
+				i.invoke(ChangedProperties.class.getMethod("copy", long[].class, long[].class));
+				i.putfield(mapperClazz, "_changed", Clazz.of(long[].class));
+				i.load(2, Clazz.of(boolean.class));
+				i.ifThen(r -> {
+					for (Field field : wrapperClazz.getRelationFields()) {
+						if (field.getAnnotation(Relation.class) == null) {
+							continue;
+						}
+						String relationLoaded = "_relationLoaded" + Token.camelHump(field.getName()).CamelBack();
+						r.load("from");
+						r.cast(mapperClazz);
+						r.getField(mapperClazz, relationLoaded, Clazz.of(boolean.class));
+						r.ifThen(c -> {
+							c.load("this");
+							c.load("from");
+							c.cast(wrapperClazz);
+							c.invoke(new MethodSignature(getGetter(field, Token.camelHump(field.getName()))));
+							c.invokeSuper(new MethodSignature(getSetter(field)));
+							c.load("this");
+							c.push(Boolean.TRUE);
+							c.putfield(mapperClazz, relationLoaded, Clazz.of(boolean.class));
+						});
+					}
+				});
+			}, e -> {
+				e.load("this");
+				e.nullConst();
+				e.putfield(mapperClazz, "_changed", Clazz.of(long[].class));
+			});
+			w.returnNothing();
+			w.end();
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	private void createSetterWrappers() {
 		try {
 			for (Method method : wrapperClass.getMethods()) {
@@ -119,8 +196,11 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 				if (Clazz.isPropertyField(field)) {
 					MethodWriter w = method(Access.Public, new MethodSignature(method));
 					w.load(0);
-					w.push(Boolean.TRUE);
-					w.putfield(mapperClazz, "_changed", Clazz.of(boolean.class));
+					w.load(0);
+					w.getField(mapperClazz, "_changed", Clazz.of(long[].class));
+					w.push(wrapperClazz.getPropertyFields().indexOf(field));
+					w.invoke(ChangedProperties.class.getMethod("set", long[].class, int.class));
+					w.putfield(mapperClazz, "_changed", Clazz.of(long[].class));
 					w.load(0);
 					w.load(1, Clazz.of(method.getParameters()[0].getType()));
 					w.invokeSuper(new MethodSignature(method));
@@ -134,6 +214,43 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 
 	}
 
+	private void createChangeTracking() {
+		try {
+			MethodWriter w = method(Access.Public, new MethodSignature(Mapping.class.getMethod("_isChanged")));
+			w.load(0);
+			w.getField(mapperClazz, "_changed", Clazz.of(long[].class));
+			w.invoke(ChangedProperties.class.getMethod("any", long[].class));
+			w.returnPrimitive(Clazz.of(boolean.class));
+			w.end();
+
+			w = method(Access.Public, new MethodSignature(Mapping.class.getMethod("_isChanged", Property.class)));
+			w.load(0);
+			w.getField(mapperClazz, "_changed", Clazz.of(long[].class));
+			w.load(1);
+			w.push(wrapperClazz);
+			w.invoke(ChangedProperties.class.getMethod("isSet", long[].class, Property.class, Class.class));
+			w.returnPrimitive(Clazz.of(boolean.class));
+			w.end();
+
+			w = method(Access.Public, new MethodSignature(Mapping.class.getMethod("_getChangedProperties")));
+			w.load(0);
+			w.getField(mapperClazz, "_changed", Clazz.of(long[].class));
+			w.push(wrapperClazz);
+			w.invoke(ChangedProperties.class.getMethod("list", long[].class, Class.class));
+			w.returnObject();
+			w.end();
+
+			w = method(Access.Public, new MethodSignature(Mapping.class.getMethod("_resetChanged")));
+			w.load(0);
+			w.nullConst();
+			w.putfield(mapperClazz, "_changed", Clazz.of(long[].class));
+			w.returnNothing();
+			w.end();
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	private void createGetRelation() {
 		try {
 			MethodWriter ce1 = method(Access.Public, new MethodSignature(Mapping.class.getMethod("_getRelation", RelationDescriber.class)));
@@ -343,26 +460,26 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 			Optional<KeySet> optional = wrapperClazz.getKeys().getPrimaryOptionally();
 			if (optional.isPresent()) {
 				KeySet primaryKey = optional.get();
-				ce.defineVar(Clazz.of(CompoundKey.class));
-				ce.invoke(new MethodSignature(CompoundKey.class.getMethod("get")));
-				ce.objectStore(2);
+				ce.getStatic(getSelf(), "_keyLayout", Clazz.of(PrimaryCompoundKey.Layout.class));
+				ce.push(primaryKey.size());
+				ce.newArray(Clazz.of(Object.class));
+				int[] index = {0};
 				primaryKey.forEach(field -> {
 					try {
-						ce.objectLoad(2);
-						ce.push(field.getProperty().getToken().snake_case());
-						ce.push(field.getProperty().getType().getBoxed());
+						ce.dup();
+						ce.push(index[0]++);
 						ce.load(1);
 						ce.cast(wrapperClazz);
 						ce.invoke(new MethodSignature(wrapperClass.getMethod("get" + field.getProperty().getToken().javaGetter())));
 						if (field.getProperty().getType().isPrimitive() || field.getProperty().getType().clazz.isEnum()) {
 							ce.box(field.getProperty().getType().getBoxed());
 						}
-						ce.invoke(new MethodSignature(CompoundKey.class.getMethod("add", String.class, Class.class, Object.class)));
+						ce.arrayStore();
 					} catch (Exception e) {
 						throw new RuntimeException(e);
 					}
 				});
-				ce.objectLoad(2);
+				ce.invoke(PrimaryCompoundKey.class.getMethod("of", PrimaryCompoundKey.Layout.class, Object[].class));
 				ce.returnObject();
 				ce.end();
 
@@ -377,6 +494,43 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 		}
 	}
 
+	private String primitiveGetter(Class<?> primitive) {
+		String name = primitive.getName();
+		return "get" + Character.toUpperCase(name.charAt(0)) + name.substring(1) + "Value";
+	}
+
+	private String propertyConstant(Field field) {
+		return "_property_" + field.getName();
+	}
+
+	// Resolves the properties used by hydrate and columnize once per mapper class, instead of by name on every call
+	private void createPropertyConstants() {
+		try {
+			MethodWriter w = staticInitializer();
+			w.push(wrapperClazz);
+			w.invoke(TypeDescriberImpl.class.getMethod("getTypeDescriber", Class.class));
+			w.cast(Clazz.of(TypeDescriberImpl.class));
+			w.objectVar("typeDescriber");
+			for (Field field : wrapperClazz.getPropertyFields()) {
+				constant(Access.Private, propertyConstant(field), Clazz.of(Property.class));
+				w.load("typeDescriber");
+				w.push(Token.camelHump(field.getName()).snake_case());
+				w.invoke(TypeDescriberImpl.class.getMethod("getPropertyFromSnakeCase", String.class));
+				w.putStatic(getSelf(), propertyConstant(field), Clazz.of(Property.class));
+			}
+			if (wrapperClazz.getKeys().getPrimaryOptionally().isPresent()) {
+				constant(Access.Private, "_keyLayout", Clazz.of(PrimaryCompoundKey.Layout.class));
+				w.push(wrapperClazz);
+				w.invoke(PrimaryCompoundKey.class.getMethod("layout", Class.class));
+				w.putStatic(getSelf(), "_keyLayout", Clazz.of(PrimaryCompoundKey.Layout.class));
+			}
+			w.returnNothing();
+			w.end();
+		} catch (NoSuchMethodException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	private void createHydrator() {
 		try {
 			for (Field field : wrapperClazz.getPropertyFields()) {
@@ -440,6 +594,11 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 			cec.cast(wrapperClazz);
 			cec.objectVar("clazz");
 
+			MethodWriter cecc = method(Access.Public, new MethodSignature(Mapping.class.getMethod("columnizeChanged", ObjectMapColumnizer.class)));
+			cecc.defineVar("this", 0);
+			cecc.defineVar("object", 0);
+			cecc.defineVar("columnizer", 1);
+
 			for (Field field : wrapperClazz.getPropertyFields()) {
 				Clazz<?> fieldClazz = Clazz.of(field);
 				Token column = Token.camelHump(field.getName());
@@ -458,10 +617,7 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 					}
 					{ // Pushes the string value of the specified property to the stack
 						ce.load("hydrator");
-						ce.load("this");
-						ce.getField(getSelf(), "typeDescriber", Clazz.of(TypeDescriberImpl.class));
-						ce.push(Token.camelHump(field.getName()).snake_case());
-						ce.invoke(TypeDescriberImpl.class.getMethod("getPropertyFromSnakeCase", String.class));
+						ce.getStatic(getSelf(), propertyConstant(field), Clazz.of(Property.class));
 						ce.invoke(ObjectMapHydrator.class.getMethod("getString", Property.class));
 					}
 					ce.invoke(ISerializer.class.getMethod("deserialize", Class.class, String.class));
@@ -475,52 +631,21 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 					}
 					{
 						ce1.load("hydrator");
-						ce1.load("this");
-						ce1.getField(getSelf(), "typeDescriber", Clazz.of(TypeDescriberImpl.class));
-						ce1.push(Token.camelHump(field.getName()).snake_case());
-						ce1.invoke(TypeDescriberImpl.class.getMethod("getPropertyFromSnakeCase", String.class));
+						ce1.getStatic(getSelf(), propertyConstant(field), Clazz.of(Property.class));
 						ce1.invoke(ObjectMapHydrator.class.getMethod("getString", Property.class));
 					}
 					ce1.invoke(ISerializer.class.getMethod("deserialize", Class.class, String.class));
 					ce1.cast(Clazz.of(field));
 
-					cec.load("columnizer");
-					cec.load("this");
-					cec.getField(getSelf(), "typeDescriber", Clazz.of(TypeDescriberImpl.class));
-					cec.push(Token.camelHump(field.getName()).snake_case());
-					cec.invoke(TypeDescriberImpl.class.getMethod("getPropertyFromSnakeCase", String.class));
-					cec.load("this");
-					cec.getField(getSelf(), "_serializerFor" + field.getName(), Clazz.of(ISerializer.class));
-					cec.load("object");
-					cec.cast(wrapperClazz);
-					cec.invoke(getterInfo);
-					cec.invoke(ISerializer.class.getMethod("serialize", Object.class));
-					cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, String.class));
 				} else {
 					ce.load("clazz");
 					ce.load("hydrator");
-					ce.load("this");
-					ce.getField(getSelf(), "typeDescriber", Clazz.of(TypeDescriberImpl.class));
-					ce.push(Token.camelHump(field.getName()).snake_case());
-					ce.invoke(TypeDescriberImpl.class.getMethod("getPropertyFromSnakeCase", String.class));
+					ce.getStatic(getSelf(), propertyConstant(field), Clazz.of(Property.class));
 
 
 					ce1.load("this");
 					ce1.load("hydrator");
-					ce1.load("this");
-					ce1.getField(getSelf(), "typeDescriber", Clazz.of(TypeDescriberImpl.class));
-					ce1.push(Token.camelHump(field.getName()).snake_case());
-					ce1.invoke(TypeDescriberImpl.class.getMethod("getPropertyFromSnakeCase", String.class));
-
-					cec.load("columnizer");
-					cec.load("this");
-					cec.getField(getSelf(), "typeDescriber", Clazz.of(TypeDescriberImpl.class));
-					cec.push(Token.camelHump(field.getName()).snake_case());
-					cec.invoke(TypeDescriberImpl.class.getMethod("getPropertyFromSnakeCase", String.class));
-
-					cec.load("object");
-					cec.cast(wrapperClazz);
-					cec.invoke(getterInfo);
+					ce1.getStatic(getSelf(), propertyConstant(field), Clazz.of(Property.class));
 
 					if (field.getType() == byte[].class) {
 						ce.invoke(ObjectMapHydrator.class.getMethod("getBytes", Property.class));
@@ -528,8 +653,6 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 
 						ce1.invoke(ObjectMapHydrator.class.getMethod("getBytes", Property.class));
 						ce1.cast(Clazz.of(field));
-
-						cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, byte[].class));
 					} else if (field.getType().isEnum()) {
 						ce.push(Clazz.of(field));
 						ce.invoke(ObjectMapHydrator.class.getMethod("getEnum", Property.class, Class.class));
@@ -538,20 +661,17 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 						ce1.push(Clazz.of(field));
 						ce1.invoke(ObjectMapHydrator.class.getMethod("getEnum", Property.class, Class.class));
 						ce1.cast(Clazz.of(field));
-
-						cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, Enum.class));
 					} else if (fieldClazz.isPrimitive() || fieldClazz.isBoxedPrimitive()) {
-						ce.invoke(ObjectMapHydrator.class.getMethod("get" + fieldClazz.getBoxed().getSimpleName(), Property.class));
-
-						ce1.invoke(ObjectMapHydrator.class.getMethod("get" + fieldClazz.getBoxed().getSimpleName(), Property.class));
-						if (fieldMethodSetter.getParameterTypes()[0].isPrimitive()) {
-							ce.unbox(fieldClazz);
-							ce1.unbox(fieldClazz);
-						}
-						if (fieldMethod.getReturnType().isPrimitive()) {
-							cec.box(fieldClazz);
+						Class<?> setterType = fieldMethodSetter.getParameterTypes()[0];
+						if (setterType.isPrimitive()) {
+							// Primitives are read and written without boxing
+							Method getter = ObjectMapHydrator.class.getMethod(primitiveGetter(setterType), Property.class);
+							ce.invoke(getter);
+							ce1.invoke(getter);
+						} else {
+							ce.invoke(ObjectMapHydrator.class.getMethod("get" + fieldClazz.getBoxed().getSimpleName(), Property.class));
+							ce1.invoke(ObjectMapHydrator.class.getMethod("get" + fieldClazz.getBoxed().getSimpleName(), Property.class));
 						}
-						cec.invoke(new MethodSignature(ObjectMapColumnizer.class.getMethod("set", Property.class, fieldClazz.getBoxed().clazz)));
 					} else if (Collection.class.isAssignableFrom(field.getType())) {
 						ce.push(fieldClazz.generics.get(0));
 						ce.push(fieldClazz);
@@ -560,31 +680,79 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 						ce1.push(fieldClazz.generics.get(0));
 						ce1.push(fieldClazz);
 						ce1.invoke(ObjectMapHydrator.class.getMethod("getCollection", Property.class, Class.class, Class.class));
-
-						cec.cast(Clazz.of(Collection.class));
-						cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, Collection.class));
 					} else {
 						ce.invoke(ObjectMapHydrator.class.getMethod("get" + fieldClazz.getSimpleName(), Property.class));
 						ce1.invoke(ObjectMapHydrator.class.getMethod("get" + fieldClazz.getSimpleName(), Property.class));
-						cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, fieldClazz.clazz));
 					}
 				}
 
 				ce1.invokeSuper(setterInfo);
 				ce.invoke(setterInfo);
 
+				columnizeField(cec, field);
+				// Only fields changed since hydration or the last reset, so untouched serialized fields are not serialized
+				cecc.load("this");
+				cecc.getField(mapperClazz, "_changed", Clazz.of(long[].class));
+				cecc.push(wrapperClazz.getPropertyFields().indexOf(field));
+				cecc.invoke(ChangedProperties.class.getMethod("isSet", long[].class, int.class));
+				cecc.ifThen(w -> columnizeField(w, field));
 			}
+			// A hydrated instance starts out unchanged
+			ce1.load("this");
+			ce1.nullConst();
+			ce1.putfield(mapperClazz, "_changed", Clazz.of(long[].class));
 			ce1.returnNothing();
 			ce1.end();
 			ce.returnNothing();
 			ce.end();
 			cec.returnNothing();
 			cec.end();
+			cecc.returnNothing();
+			cecc.end();
 		} catch (Exception e) {
 			throw new RuntimeException(e);
 		}
 	}
 
+	private void columnizeField(MethodWriter cec, Field field) throws NoSuchMethodException {
+		Clazz<?> fieldClazz = Clazz.of(field);
+		Method fieldMethod = getGetter(field, Token.camelHump(field.getName()));
+		MethodSignature getterInfo = new MethodSignature(fieldMethod);
+
+		cec.load("columnizer");
+		cec.getStatic(getSelf(), propertyConstant(field), Clazz.of(Property.class));
+		if (field.getAnnotation(Serialized.class) != null) {
+			cec.load("this");
+			cec.getField(getSelf(), "_serializerFor" + field.getName(), Clazz.of(ISerializer.class));
+			cec.load("object");
+			cec.cast(wrapperClazz);
+			cec.invoke(getterInfo);
+			cec.invoke(ISerializer.class.getMethod("serialize", Object.class));
+			cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, String.class));
+			return;
+		}
+		cec.load("object");
+		cec.cast(wrapperClazz);
+		cec.invoke(getterInfo);
+
+		if (field.getType() == byte[].class) {
+			cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, byte[].class));
+		} else if (field.getType().isEnum()) {
+			cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, Enum.class));
+		} else if (fieldClazz.isPrimitive() || fieldClazz.isBoxedPrimitive()) {
+			if (fieldMethod.getReturnType().isPrimitive()) {
+				cec.invoke(new MethodSignature(ObjectMapColumnizer.class.getMethod("set", Property.class, fieldMethod.getReturnType())));
+			} else {
+				cec.invoke(new MethodSignature(ObjectMapColumnizer.class.getMethod("set", Property.class, fieldClazz.getBoxed().clazz)));
+			}
+		} else if (Collection.class.isAssignableFrom(field.getType())) {
+			cec.cast(Clazz.of(Collection.class));
+			cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, Collection.class));
+		} else {
+			cec.invoke(ObjectMapColumnizer.class.getMethod("set", Property.class, fieldClazz.clazz));
+		}
+	}
+
 	private Method getSetter(Field field) throws NoSuchMethodException {
 		return wrapperClass.getMethod("set" + Token.camelHump(field.getName()).javaGetter(), field.getType());
 	}
@@ -610,6 +778,27 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 			gvce.cast(wrapperClazz); // cast instance
 			gvce.objectStore(4); // store cast instance into slot 4
 
+			List<ThrowingConsumer<MethodWriter, ReflectiveOperationException>> cases = new ArrayList<>();
+			for (Field field : wrapperClazz.getPropertyFields()) {
+				Method fieldMethod = getSetter(field);
+				cases.add(c -> {
+					c.load(4);
+					c.load(3);
+					if (Clazz.of(field).isPrimitive()) {
+						c.unbox(Clazz.of(field));
+					} else {
+						c.cast(Clazz.of(field));
+					}
+					c.invoke(fieldMethod);
+					c.returnNothing();
+				});
+			}
+			// Properties described from this type dispatch on their ordinal, any other property by its name
+			gvce.load(2);
+			gvce.push(wrapperClazz);
+			gvce.invoke(Property.class.getMethod("ordinal", Class.class));
+			gvce.tableSwitch(cases);
+
 			List<String> fields = new ArrayList<>();
 
 			for (Field field : wrapperClazz.getPropertyFields()) {
@@ -677,6 +866,24 @@ public class MappingClassWriter extends AutoMapperClassWriter {
 			gvce.cast(wrapperClazz);
 			gvce.objectStore(3);
 
+			List<ThrowingConsumer<MethodWriter, ReflectiveOperationException>> cases = new ArrayList<>();
+			for (Field field : wrapperClazz.getPropertyFields()) {
+				Method fieldMethod = getGetter(field, Token.camelHump(field.getName()));
+				cases.add(c -> {
+					c.load(3);
+					c.invoke(fieldMethod);
+					if (field.getType().isPrimitive()) {
+						c.box(Clazz.of(field));
+					}
+					c.returnObject();
+				});
+			}
+			// Properties described from this type dispatch on their ordinal, any other property by its name
+			gvce.load(2);
+			gvce.push(wrapperClazz);
+			gvce.invoke(Property.class.getMethod("ordinal", Class.class));
+			gvce.tableSwitch(cases);
+
 			List<String> fields = new ArrayList<>();
 
 			for (Field field : wrapperClazz.getPropertyFields()) {
@@ -0,0 +1,28 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// Thrown by AutoMapper.mapAll once every class that could be mapped has been, with the error for each class that could not
+public class MappingFailedException extends RuntimeException {
+	private final Map<Class<?>, RuntimeException> failures;
+
+	public MappingFailedException(Map<Class<?>, RuntimeException> failures) {
+		super("Error generating mappings for: " + failures.keySet().stream().map(Class::getName).collect(Collectors.joining(", ")));
+		this.failures = Collections.unmodifiableMap(failures);
+		failures.values().forEach(this::addSuppressed);
+	}
+
+	public Map<Class<?>, RuntimeException> getFailures() {
+		return failures;
+	}
+}
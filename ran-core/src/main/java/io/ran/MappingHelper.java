@@ -11,8 +11,11 @@ package io.ran;
 import io.ran.token.Token;
 
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class MappingHelper {
 	private GenericFactory genericFactory;
@@ -30,6 +33,25 @@ public class MappingHelper {
 		}
 	}
 
+	public <T> List<T> hydrateAll(Class<T> type, ObjectMapCursor cursor) {
+		List<T> result = new ArrayList<>();
+		hydrateAll(type, cursor, result::add);
+		return result;
+	}
+
+	public <T> void hydrateAll(Class<T> type, ObjectMapCursor cursor, Consumer<T> sink) {
+		Supplier<T> provider = genericFactory.getProvider(type);
+		while (cursor.next()) {
+			T t = provider.get();
+			if (t instanceof Mapping) {
+				((Mapping) t).hydrate(cursor);
+			} else {
+				hydrate(t, cursor);
+			}
+			sink.accept(t);
+		}
+	}
+
 	public void columnize(Object toColumnize, ObjectMapColumnizer columnizer) {
 		if (toColumnize instanceof Mapping) {
 			((Mapping) toColumnize).columnize(columnizer);
@@ -38,6 +60,15 @@ public class MappingHelper {
 		}
 	}
 
+	// Objects that are not mapper instances don't track changes, so all of their fields are columnized
+	public void columnizeChanged(Object toColumnize, ObjectMapColumnizer columnizer) {
+		if (toColumnize instanceof Mapping) {
+			((Mapping) toColumnize).columnizeChanged(columnizer);
+		} else {
+			columnize(toColumnize, columnizer);
+		}
+	}
+
 	public CompoundKey getKey(Object obj) {
 		if (obj instanceof Mapping) {
 			return ((Mapping) obj)._getKey();
@@ -103,13 +134,24 @@ public class MappingHelper {
 	}
 
 	public <T> void copyValues(Class<T> tClass, T from, T to) {
-		Mapping mapping = (Mapping) genericFactory.get(tClass);
-		mapping.copy(from, to);
+		if (to instanceof Mapping) {
+			// Copies through the setters of the target, so every copied property is marked changed on top of its own changes
+			((Mapping) to).copy(from, to);
+		} else {
+			Mapping mapping = (Mapping) genericFactory.get(tClass);
+			mapping.copy(from, to);
+		}
 	}
 
 	public <T> T makeCopy(Class<T> tClass, T t) {
 		Mapping mapping = (Mapping) genericFactory.get(tClass);
-		mapping.copy(t, mapping);
+		mapping.copyFrom(t, false, false);
+		return (T) mapping;
+	}
+
+	public <T> T makeCopy(Class<T> tClass, T t, boolean withRelations, boolean deep) {
+		Mapping mapping = (Mapping) genericFactory.get(tClass);
+		mapping.copyFrom(t, withRelations, deep);
 		return (T) mapping;
 	}
 }
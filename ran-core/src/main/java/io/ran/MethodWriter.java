@@ -17,6 +17,7 @@ import org.objectweb.asm.Type;
 
 import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class MethodWriter {
@@ -169,6 +170,26 @@ public class MethodWriter {
 		mv.visitLabel(endif);
 	}
 
+	// Switches on the int on top of the stack, running cases.get(i) for the value i. Cases are expected to return,
+	// any other value continues after the switch.
+	public <E extends Throwable> void tableSwitch(List<ThrowingConsumer<MethodWriter, E>> cases) throws E {
+		if (cases.isEmpty()) {
+			pop();
+			return;
+		}
+		Label defaultLabel = new Label();
+		Label[] labels = new Label[cases.size()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = new Label();
+		}
+		mv.visitTableSwitchInsn(0, labels.length - 1, defaultLabel, labels);
+		for (int i = 0; i < labels.length; i++) {
+			mv.visitLabel(labels[i]);
+			cases.get(i).accept(this);
+		}
+		mv.visitLabel(defaultLabel);
+	}
+
 	public void cast(Clazz<?> of) {
 		mv.visitTypeInsn(Opcodes.CHECKCAST, of.getInternalName());
 	}
@@ -341,6 +362,22 @@ public class MethodWriter {
 		mv.visitFieldInsn(Opcodes.GETFIELD, owner.getInternalName(), field, fieldType.getDescriptor());
 	}
 
+	public void putStatic(Clazz clazz, String name, Clazz of) {
+		mv.visitFieldInsn(Opcodes.PUTSTATIC, clazz.getInternalName(), name, of.getDescriptor());
+	}
+
+	public void getStatic(Clazz owner, String field, Clazz fieldType) {
+		mv.visitFieldInsn(Opcodes.GETSTATIC, owner.getInternalName(), field, fieldType.getDescriptor());
+	}
+
+	public void newArray(Clazz elementType) {
+		mv.visitTypeInsn(Opcodes.ANEWARRAY, elementType.getInternalName());
+	}
+
+	public void arrayStore() {
+		mv.visitInsn(Opcodes.AASTORE);
+	}
+
 	public void newInstance(Clazz of) {
 		mv.visitTypeInsn(Opcodes.NEW, of.getInternalName());
 	}
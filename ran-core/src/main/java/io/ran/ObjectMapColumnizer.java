@@ -55,4 +55,36 @@ public interface ObjectMapColumnizer {
 	void set(Property key, Enum<?> value);
 
 	void set(Property key, Collection<?> value);
+
+	default void set(Property key, int value) {
+		set(key, (Integer) value);
+	}
+
+	default void set(Property key, short value) {
+		set(key, (Short) value);
+	}
+
+	default void set(Property key, long value) {
+		set(key, (Long) value);
+	}
+
+	default void set(Property key, double value) {
+		set(key, (Double) value);
+	}
+
+	default void set(Property key, float value) {
+		set(key, (Float) value);
+	}
+
+	default void set(Property key, boolean value) {
+		set(key, (Boolean) value);
+	}
+
+	default void set(Property key, byte value) {
+		set(key, (Byte) value);
+	}
+
+	default void set(Property key, char value) {
+		set(key, (Character) value);
+	}
 }
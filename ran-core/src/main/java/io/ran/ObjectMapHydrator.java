@@ -55,4 +55,45 @@ public interface ObjectMapHydrator {
 	<T extends Enum<T>> T getEnum(Property key, Class<T> enumType);
 
 	<T> Collection<T> getCollection(Property key, Class<T> elementType, Class<? extends Collection<T>> collectionType);
+
+	// Primitive getters, which return the default value of the type when the value is absent or null
+	default int getIntValue(Property key) {
+		Integer value = getInteger(key);
+		return value != null ? value : 0;
+	}
+
+	default short getShortValue(Property key) {
+		Short value = getShort(key);
+		return value != null ? value : (short) 0;
+	}
+
+	default long getLongValue(Property key) {
+		Long value = getLong(key);
+		return value != null ? value : 0L;
+	}
+
+	default double getDoubleValue(Property key) {
+		Double value = getDouble(key);
+		return value != null ? value : 0.0;
+	}
+
+	default float getFloatValue(Property key) {
+		Float value = getFloat(key);
+		return value != null ? value : 0f;
+	}
+
+	default boolean getBooleanValue(Property key) {
+		Boolean value = getBoolean(key);
+		return value != null ? value : false;
+	}
+
+	default byte getByteValue(Property key) {
+		Byte value = getByte(key);
+		return value != null ? value : (byte) 0;
+	}
+
+	default char getCharValue(Property key) {
+		Character value = getCharacter(key);
+		return value != null ? value : '\u0000';
+	}
 }
@@ -0,0 +1,519 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// An ObjectMap for a single model type, storing values by property ordinal instead of hashing tokens.
+// Primitives written through the primitive setters are kept unboxed. A map can be reused for the next row with clear().
+public class ObjectSlotMap implements ObjectMapHydrator, ObjectMapColumnizer {
+	private static final ClassValue<Layout> layouts = new ClassValue<Layout>() {
+		@Override
+		protected Layout computeValue(Class<?> type) {
+			return new Layout(TypeDescriberImpl.getTypeDescriber(type));
+		}
+	};
+
+	private final Layout layout;
+	private final Object[] values;
+	private final long[] primitives;
+
+	public ObjectSlotMap(Class<?> type) {
+		this(layouts.get(type));
+	}
+
+	public ObjectSlotMap(TypeDescriber<?> typeDescriber) {
+		this(typeDescriber.clazz());
+	}
+
+	private ObjectSlotMap(Layout layout) {
+		this.layout = layout;
+		this.values = new Object[layout.properties.length];
+		this.primitives = new long[layout.properties.length];
+	}
+
+	public Class<?> getType() {
+		return layout.type;
+	}
+
+	public Object get(Property key) {
+		int slot = layout.slot(key);
+		return slot < 0 ? null : value(slot);
+	}
+
+	public boolean contains(Property key) {
+		int slot = layout.slot(key);
+		return slot >= 0 && values[slot] != null;
+	}
+
+	public void clear() {
+		Arrays.fill(values, null);
+	}
+
+	public ObjectMap toObjectMap() {
+		ObjectMap map = new ObjectMap();
+		for (int slot = 0; slot < values.length; slot++) {
+			if (values[slot] != null) {
+				map.put(layout.properties[slot].getToken(), value(slot));
+			}
+		}
+		return map;
+	}
+
+	private Object value(int slot) {
+		Object value = values[slot];
+		return value instanceof Primitive ? ((Primitive) value).box(primitives[slot]) : value;
+	}
+
+	private void put(Property key, Object value) {
+		values[layout.requireSlot(key)] = value;
+	}
+
+	private void putPrimitive(Property key, Primitive primitive, long bits) {
+		int slot = layout.requireSlot(key);
+		values[slot] = primitive;
+		primitives[slot] = bits;
+	}
+
+	private <T> T getObject(Property key) {
+		int slot = layout.slot(key);
+		return slot < 0 ? null : (T) value(slot);
+	}
+
+	@Override
+	public void set(Property key, String value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Character value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, ZonedDateTime value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, LocalDateTime value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, LocalTime value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Instant value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, LocalDate value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Integer value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Short value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Long value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, UUID value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Double value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, BigDecimal value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Float value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Boolean value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Byte value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, byte[] value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Enum<?> value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, Collection<?> value) {
+		put(key, value);
+	}
+
+	@Override
+	public void set(Property key, int value) {
+		putPrimitive(key, Primitive.Int, value);
+	}
+
+	@Override
+	public void set(Property key, short value) {
+		putPrimitive(key, Primitive.Short, value);
+	}
+
+	@Override
+	public void set(Property key, long value) {
+		putPrimitive(key, Primitive.Long, value);
+	}
+
+	@Override
+	public void set(Property key, double value) {
+		putPrimitive(key, Primitive.Double, Double.doubleToRawLongBits(value));
+	}
+
+	@Override
+	public void set(Property key, float value) {
+		putPrimitive(key, Primitive.Float, Float.floatToRawIntBits(value));
+	}
+
+	@Override
+	public void set(Property key, boolean value) {
+		putPrimitive(key, Primitive.Boolean, value ? 1 : 0);
+	}
+
+	@Override
+	public void set(Property key, byte value) {
+		putPrimitive(key, Primitive.Byte, value);
+	}
+
+	@Override
+	public void set(Property key, char value) {
+		putPrimitive(key, Primitive.Char, value);
+	}
+
+	@Override
+	public String getString(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Character getCharacter(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public ZonedDateTime getZonedDateTime(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Instant getInstant(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public LocalDateTime getLocalDateTime(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public LocalDate getLocalDate(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public LocalTime getLocalTime(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Integer getInteger(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Short getShort(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Long getLong(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public UUID getUUID(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Double getDouble(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public BigDecimal getBigDecimal(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Float getFloat(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Boolean getBoolean(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public Byte getByte(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public byte[] getBytes(Property key) {
+		return getObject(key);
+	}
+
+	@Override
+	public <T extends Enum<T>> T getEnum(Property key, Class<T> enumType) {
+		return getObject(key);
+	}
+
+	@Override
+	public <T> Collection<T> getCollection(Property key, Class<T> elementType, Class<? extends Collection<T>> collectionType) {
+		return getObject(key);
+	}
+
+	@Override
+	public int getIntValue(Property key) {
+		int slot = layout.slot(key);
+		if (slot < 0) {
+			return 0;
+		}
+		if (values[slot] == Primitive.Int) {
+			return (int) primitives[slot];
+		}
+		Integer value = (Integer) value(slot);
+		return value != null ? value : 0;
+	}
+
+	@Override
+	public short getShortValue(Property key) {
+		int slot = layout.slot(key);
+		if (slot < 0) {
+			return (short) 0;
+		}
+		if (values[slot] == Primitive.Short) {
+			return (short) primitives[slot];
+		}
+		Short value = (Short) value(slot);
+		return value != null ? value : (short) 0;
+	}
+
+	@Override
+	public long getLongValue(Property key) {
+		int slot = layout.slot(key);
+		if (slot < 0) {
+			return 0L;
+		}
+		if (values[slot] == Primitive.Long) {
+			return primitives[slot];
+		}
+		Long value = (Long) value(slot);
+		return value != null ? value : 0L;
+	}
+
+	@Override
+	public double getDoubleValue(Property key) {
+		int slot = layout.slot(key);
+		if (slot < 0) {
+			return 0.0;
+		}
+		if (values[slot] == Primitive.Double) {
+			return Double.longBitsToDouble(primitives[slot]);
+		}
+		Double value = (Double) value(slot);
+		return value != null ? value : 0.0;
+	}
+
+	@Override
+	public float getFloatValue(Property key) {
+		int slot = layout.slot(key);
+		if (slot < 0) {
+			return 0f;
+		}
+		if (values[slot] == Primitive.Float) {
+			return Float.intBitsToFloat((int) primitives[slot]);
+		}
+		Float value = (Float) value(slot);
+		return value != null ? value : 0f;
+	}
+
+	@Override
+	public boolean getBooleanValue(Property key) {
+		int slot = layout.slot(key);
+		if (slot < 0) {
+			return false;
+		}
+		if (values[slot] == Primitive.Boolean) {
+			return primitives[slot] != 0;
+		}
+		Boolean value = (Boolean) value(slot);
+		return value != null ? value : false;
+	}
+
+	@Override
+	public byte getByteValue(Property key) {
+		int slot = layout.slot(key);
+		if (slot < 0) {
+			return (byte) 0;
+		}
+		if (values[slot] == Primitive.Byte) {
+			return (byte) primitives[slot];
+		}
+		Byte value = (Byte) value(slot);
+		return value != null ? value : (byte) 0;
+	}
+
+	@Override
+	public char getCharValue(Property key) {
+		int slot = layout.slot(key);
+		if (slot < 0) {
+			return '\u0000';
+		}
+		if (values[slot] == Primitive.Char) {
+			return (char) primitives[slot];
+		}
+		Character value = (Character) value(slot);
+		return value != null ? value : '\u0000';
+	}
+
+	private enum Primitive {
+		Int {
+			@Override
+			Object box(long bits) {
+				return (int) bits;
+			}
+		},
+		Short {
+			@Override
+			Object box(long bits) {
+				return (short) bits;
+			}
+		},
+		Long {
+			@Override
+			Object box(long bits) {
+				return bits;
+			}
+		},
+		Double {
+			@Override
+			Object box(long bits) {
+				return java.lang.Double.longBitsToDouble(bits);
+			}
+		},
+		Float {
+			@Override
+			Object box(long bits) {
+				return java.lang.Float.intBitsToFloat((int) bits);
+			}
+		},
+		Boolean {
+			@Override
+			Object box(long bits) {
+				return bits != 0;
+			}
+		},
+		Byte {
+			@Override
+			Object box(long bits) {
+				return (byte) bits;
+			}
+		},
+		Char {
+			@Override
+			Object box(long bits) {
+				return (char) bits;
+			}
+		};
+
+		abstract Object box(long bits);
+	}
+
+	private static class Layout {
+		private final Class<?> type;
+		private final Property[] properties;
+		private final Map<String, Integer> slotsBySnakeCase = new HashMap<>();
+
+		Layout(TypeDescriber<?> typeDescriber) {
+			this.type = typeDescriber.clazz();
+			int size = typeDescriber.fields().stream().mapToInt(p -> p.ordinal(type) + 1).max().orElse(0);
+			this.properties = new Property[size];
+			for (Property property : typeDescriber.fields()) {
+				int ordinal = property.ordinal(type);
+				properties[ordinal] = property;
+				slotsBySnakeCase.put(property.getSnakeCase(), ordinal);
+			}
+		}
+
+		int slot(Property key) {
+			int ordinal = key.ordinal(type);
+			if (ordinal >= 0) {
+				return ordinal;
+			}
+			Integer slot = slotsBySnakeCase.get(key.getSnakeCase());
+			return slot != null ? slot : -1;
+		}
+
+		int requireSlot(Property key) {
+			int slot = slot(key);
+			if (slot < 0) {
+				throw new IllegalArgumentException(key.getSnakeCase() + " is not a property of " + type.getName());
+			}
+			return slot;
+		}
+	}
+}
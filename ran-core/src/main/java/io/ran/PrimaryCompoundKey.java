@@ -0,0 +1,217 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.token.Token;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+// The primary key of a mapped object as returned by the generated _getKey. The key properties are resolved once per
+// model type, and the hash code is computed when the key is created. It hashes and compares like a CompoundKey with
+// the same property values, so the two can be mixed as map keys. It can not be modified, as that would break the
+// precomputed hash; use toCompoundKey for a copy that can be added to.
+public class PrimaryCompoundKey extends CompoundKey {
+	private static final ClassValue<Layout> layouts = new ClassValue<Layout>() {
+		@Override
+		protected Layout computeValue(Class<?> type) {
+			return new Layout(Clazz.of(type).getKeys().getPrimary());
+		}
+	};
+
+	private final Layout layout;
+	private final Object[] keyValues;
+	private final int hash;
+
+	private PrimaryCompoundKey(Layout layout, Object[] keyValues) {
+		super(null);
+		this.layout = layout;
+		this.keyValues = keyValues;
+		int hash = 1;
+		for (int i = 0; i < keyValues.length; i++) {
+			hash = 31 * hash + 31 * layout.propertyHashes[i] + (keyValues[i] != null ? keyValues[i].hashCode() : 0);
+		}
+		this.hash = hash;
+	}
+
+	public static Layout layout(Class<?> type) {
+		return layouts.get(type);
+	}
+
+	public static PrimaryCompoundKey of(Layout layout, Object[] keyValues) {
+		return new PrimaryCompoundKey(layout, keyValues);
+	}
+
+	@Override
+	public Property.PropertyValueList getValues() {
+		if (values == null) {
+			Property.PropertyValueList list = new Property.PropertyValueList<>();
+			for (int i = 0; i < keyValues.length; i++) {
+				list.add(((Property) layout.properties[i]).value(keyValues[i]));
+			}
+			values = new UnmodifiableValues(list);
+		}
+		return values;
+	}
+
+	public CompoundKey toCompoundKey() {
+		CompoundKey key = new CompoundKey();
+		for (Object propertyValue : getValues()) {
+			key.add((Property.PropertyValue<?>) propertyValue);
+		}
+		return key;
+	}
+
+	@Override
+	public Object getValue(Token token) {
+		for (int i = 0; i < keyValues.length; i++) {
+			if (layout.properties[i].getToken().equals(token)) {
+				return keyValues[i];
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void add(Property.PropertyValue<?> propertyValue) {
+		throw new UnsupportedOperationException("The primary key of a mapped object can not be added to, use toCompoundKey() for a modifiable copy");
+	}
+
+	@Override
+	public void add(String snakeCase, Class type, Object value) {
+		throw new UnsupportedOperationException("The primary key of a mapped object can not be added to, use toCompoundKey() for a modifiable copy");
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o instanceof PrimaryCompoundKey && ((PrimaryCompoundKey) o).layout == layout) {
+			return hash == o.hashCode() && Arrays.equals(keyValues, ((PrimaryCompoundKey) o).keyValues);
+		}
+		return super.equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	private static class UnmodifiableValues extends Property.PropertyValueList<Object> {
+		private final boolean sealed;
+
+		private UnmodifiableValues(Collection<Property.PropertyValue<Object>> values) {
+			super.addAll(values);
+			sealed = true;
+		}
+
+		private UnsupportedOperationException unmodifiable() {
+			return new UnsupportedOperationException("The values of a primary key can not be modified");
+		}
+
+		@Override
+		public boolean add(Property.PropertyValue<Object> value) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public void add(int index, Property.PropertyValue<Object> value) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends Property.PropertyValue<Object>> values) {
+			if (sealed) {
+				throw unmodifiable();
+			}
+			return super.addAll(values);
+		}
+
+		@Override
+		public boolean addAll(int index, Collection<? extends Property.PropertyValue<Object>> values) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public Property.PropertyValue<Object> set(int index, Property.PropertyValue<Object> value) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public Property.PropertyValue<Object> remove(int index) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public boolean remove(Object value) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public boolean removeAll(Collection<?> values) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public boolean retainAll(Collection<?> values) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public boolean removeIf(Predicate<? super Property.PropertyValue<Object>> filter) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public void replaceAll(UnaryOperator<Property.PropertyValue<Object>> operator) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public void sort(Comparator<? super Property.PropertyValue<Object>> comparator) {
+			throw unmodifiable();
+		}
+
+		@Override
+		public void clear() {
+			throw unmodifiable();
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			throw unmodifiable();
+		}
+
+		// The iterators of ArrayList modify through the methods above, but its sub lists write to the array directly
+		@Override
+		public List<Property.PropertyValue<Object>> subList(int fromIndex, int toIndex) {
+			return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+		}
+	}
+
+	public static class Layout {
+		private final Property<?>[] properties;
+		private final int[] propertyHashes;
+
+		private Layout(KeySet keySet) {
+			properties = new Property<?>[keySet.size()];
+			propertyHashes = new int[properties.length];
+			int[] i = {0};
+			keySet.forEach(field -> {
+				properties[i[0]] = Property.get(field.getProperty().getToken().snake_case(), Clazz.of(field.getProperty().getType().getBoxed().clazz));
+				propertyHashes[i[0]] = properties[i[0]].hashCode();
+				i[0]++;
+			});
+		}
+	}
+}
@@ -31,6 +31,8 @@ public class Property<T> {
 	private Clazz<?> on;
 	private List<KeyInfo> keys = new ArrayList<>();
 	private Annotations annotations = new Annotations();
+	private Class<?> ordinalOf;
+	private int ordinal = -1;
 
 	private Property() {
 	}
@@ -107,6 +109,17 @@ public class Property<T> {
 		return this;
 	}
 
+	// The position of the property among the property fields of the given type, or -1 if it is not a property of that type
+	public int ordinal(Class<?> type) {
+		return ordinalOf == type ? ordinal : -1;
+	}
+
+	Property<T> setOrdinal(Class<?> type, int ordinal) {
+		this.ordinalOf = type;
+		this.ordinal = ordinal;
+		return this;
+	}
+
 	public boolean matchesSnakeCase(String snakeCase) {
 		return this.snakeCase.equals(snakeCase);
 	}
@@ -143,6 +156,8 @@ public class Property<T> {
 		property.on = on;
 		property.annotations = annotations;
 		property.keys = new ArrayList<>(keys);
+		property.ordinalOf = ordinalOf;
+		property.ordinal = ordinal;
 		return property;
 	}
 
@@ -241,11 +256,11 @@ public class Property<T> {
 					Optional<Property> ownProperty = getOptional(Token.CamelCase(otherType.clazz.getSimpleName() + "Id"));
 					KeySets keys = keys();
 					if (otherProperty.matchesSnakeCase("id") && ownProperty.isPresent()) {
-						keySet.parts.clear();
+						keySet.clear();
 						keySet.add(ownProperty.get());
 						return keySet;
 					} else if (otherProperty.getToken().equals(Token.CamelCase(get(0).getOn().clazz.getSimpleName() + "Id")) && keys.getPrimary().size() == 1) {
-						keySet.parts.clear();
+						keySet.clear();
 						keySet.add(keys.getPrimary());
 						return keySet;
 					}
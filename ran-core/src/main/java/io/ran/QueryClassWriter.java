@@ -19,13 +19,16 @@ import java.lang.reflect.Parameter;
 import java.util.Arrays;
 
 public class QueryClassWriter extends AutoMapperClassWriter {
+	public static final String POSTFIX = "$Ran$Query";
+
 	public QueryClassWriter(Class clazz) {
 		super(clazz);
-		postFix = "$Ran$Query";
+		postFix = POSTFIX;
 		this.name = this.wrapperClazz.getInternalName().replace('/', '.') + postFix;
 		this.shortName = clazz.getSimpleName() + postFix;
 
-		visit(Opcodes.V1_8, Access.Public.getOpCode(), this.wrapperClazz.getInternalName() + "$Ran$Query", this.wrapperClazz.generics.isEmpty() ? null : this.wrapperClazz.getSignature(), this.wrapperClazz.getInternalName(), new String[]{Clazz.of(QueryWrapper.class).getInternalName()});
+		visit(Opcodes.V1_8, Access.Public.getOpCode(), this.wrapperClazz.getInternalName() + postFix, this.wrapperClazz.generics.isEmpty() ? null : this.wrapperClazz.getSignature(), this.wrapperClazz.getInternalName(), new String[]{Clazz.of(QueryWrapper.class).getInternalName()});
+		addAnnotation(Clazz.of(GeneratedMapping.class), true, "version", MapperGenerator.VERSION);
 
 
 		buildConstructor();
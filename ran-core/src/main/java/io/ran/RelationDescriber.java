@@ -80,6 +80,12 @@ public class RelationDescriber {
 		return collectionType != null;
 	}
 
+	void freezeKeys() {
+		fromKeys.freeze();
+		toKeys.freeze();
+		via.forEach(RelationDescriber::freezeKeys);
+	}
+
 	public List<RelationDescriber> getVia() {
 		return via;
 	}
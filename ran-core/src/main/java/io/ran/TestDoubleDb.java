@@ -18,6 +18,11 @@ public class TestDoubleDb {
 	public Map<Class<?>, Map<Object, Object>> store = Collections.synchronizedMap(new HashMap<>());
 
 	public <T> Map<Object, T> getStore(Class<T> modelType) {
-		return (Map<Object, T>) store.computeIfAbsent(modelType, t -> Collections.synchronizedMap(new HashMap<>()));
+		return (Map<Object, T>) store.computeIfAbsent(modelType, t -> (Map) new TestDoubleStore<>(modelType));
+	}
+
+	public <T> TestDoubleStore<T> getIndexedStore(Class<T> modelType) {
+		Map<Object, T> rows = getStore(modelType);
+		return rows instanceof TestDoubleStore ? (TestDoubleStore<T>) rows : new TestDoubleStore<>(rows);
 	}
 }
@@ -8,10 +8,18 @@
  */
 package io.ran;
 
+import io.ran.token.Token;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -21,6 +29,10 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 		extends CrudRepoBaseQuery<T, Z>
 		implements CrudRepository.InlineQuery<T, Z> {
 	protected List<Predicate<T>> filters = new ArrayList<>();
+	protected Map<Token, Object> equalities = new HashMap<>();
+	protected Map<Token, TestDoubleStore.Range> ranges = new HashMap<>();
+	protected Property<?> orderedBy;
+	protected boolean orderedDescending;
 	protected List<Comparator<T>> sorts = new ArrayList<>();
 	protected Integer limit = null;
 	protected MappingHelper mappingHelper;
@@ -36,6 +48,7 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 	}
 
 	public Z eq(Property.PropertyValue<?> propertyValue) {
+		equalities.putIfAbsent(propertyValue.getProperty().getToken(), propertyValue.getValue());
 		filters.add(t -> {
 			Object actualValue = getValue(propertyValue.getProperty(), t);
 			return Objects.equals(actualValue, propertyValue.getValue());
@@ -44,6 +57,7 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 	}
 
 	public Z gt(Property.PropertyValue<?> propertyValue) {
+		range(propertyValue).from(propertyValue.getValue(), false);
 		filters.add(t -> {
 			Object actualValue = getValue(propertyValue.getProperty(), t);
 			if (actualValue instanceof Comparable) {
@@ -55,6 +69,7 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 	}
 
 	public Z gte(Property.PropertyValue<?> propertyValue) {
+		range(propertyValue).from(propertyValue.getValue(), true);
 		filters.add(t -> {
 			Object actualValue = getValue(propertyValue.getProperty(), t);
 			if (actualValue instanceof Comparable) {
@@ -66,6 +81,7 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 	}
 
 	public Z lt(Property.PropertyValue<?> propertyValue) {
+		range(propertyValue).to(propertyValue.getValue(), false);
 		filters.add(t -> {
 			Object actualValue = getValue(propertyValue.getProperty(), t);
 			if (actualValue instanceof Comparable) {
@@ -77,6 +93,7 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 	}
 
 	public Z lte(Property.PropertyValue<?> propertyValue) {
+		range(propertyValue).to(propertyValue.getValue(), true);
 		filters.add(t -> {
 			Object actualValue = getValue(propertyValue.getProperty(), t);
 			if (actualValue instanceof Comparable) {
@@ -87,6 +104,14 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 		return (Z) this;
 	}
 
+	private TestDoubleStore.Range range(Property.PropertyValue<?> propertyValue) {
+		if (!(propertyValue.getValue() instanceof Comparable)) {
+			// Nothing matches a range without a comparable bound, so the range itself is left alone
+			return new TestDoubleStore.Range();
+		}
+		return ranges.computeIfAbsent(propertyValue.getProperty().getToken(), t -> new TestDoubleStore.Range());
+	}
+
 	public Z isNull(Property<?> property) {
 		filters.add(t -> {
 			Object actualValue = getValue(property, t);
@@ -103,16 +128,29 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 
 	@Override
 	public <X extends Comparable<X>> Z sortAscending(Property<X> property) {
+		orderBy(property, false);
 		this.sorts.add(Comparator.comparing(o -> getSQLLikeValue(property, o)));
 		return (Z) this;
 	}
 
 	@Override
 	public <X extends Comparable<X>> Z sortDescending(Property<X> property) {
+		orderBy(property, true);
 		this.sorts.add(Comparator.comparing((T o) -> getSQLLikeValue(property, o)).reversed());
 		return (Z) this;
 	}
 
+	private void orderBy(Property<?> property, boolean descending) {
+		// Strings and enums sort case insensitively, which an ordered index in natural order can not walk
+		Class<?> type = property.getType().clazz;
+		if (sorts.isEmpty() && !String.class.equals(type) && !type.isEnum()) {
+			orderedBy = property;
+			orderedDescending = descending;
+		} else {
+			orderedBy = null;
+		}
+	}
+
 	private <X extends Comparable<X>> X getSQLLikeValue(Property<X> property, T o) {
 		X value = getValue(property, o);
 		if (value instanceof String) {
@@ -148,21 +186,8 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 		Y otherQuery = (Y) getQuery(relationDescriber.getToClass().clazz);
 		consumer.accept(otherQuery);
 
-		filters.add(t -> {
-			List<X> subResult = otherQuery.execute().collect(Collectors.toList());
-			for (int i = 0; i < relationDescriber.getFromKeys().size(); i++) {
-				Object tv = mappingHelper.getValue(t, relationDescriber.getFromKeys().get(i).getProperty());
-				int finalI = i;
-				subResult.removeIf(o -> {
-					Object ov = mappingHelper.getValue(o, relationDescriber.getToKeys().get(finalI).getProperty());
-					return !tv.equals(ov);
-				});
-			}
-			return !subResult.isEmpty();
-		});
+		filters.add(new SemiJoin<>(otherQuery, relationDescriber.getFromKeys().properties(), relationDescriber.getToKeys().properties(), mappingHelper));
 		return (Z) this;
-
-
 	}
 
 	protected abstract Z getQuery(Class<?> queryClass);
@@ -172,42 +197,113 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 		return executeInternal().map(e -> mappingHelper.makeCopy(clazz, e));
 	}
 
+	// Streams the stored rows themselves, a row changed in place has to be put back into the store to be re-indexed.
+	// Rows can be saved while the result is consumed: a scan visits every stored row once, and rows walked through an
+	// ordered index are collected first. Rows added while a scan is consumed may or may not be visited
 	protected Stream<T> executeInternal() {
-		Stream<T> values = testDoubleDb.getStore(clazz).values().stream();
-		for (Predicate<T> filter : filters) {
-			values = values.filter(filter);
+		TestDoubleStore<T> store = testDoubleDb.getIndexedStore(clazz);
+		Map<Object, T> selected = store.select(equalities);
+		if (selected == store) {
+			Stream<T> walked = orderedBy != null ? store.ordered(orderedBy.getToken(), ranges.get(orderedBy.getToken()), orderedDescending)
+					: sorts.isEmpty() ? ranged(store) : null;
+			if (walked != null) {
+				// Collected before it is handed out, as a row saved with a new indexed value while the result is consumed
+				// would otherwise be walked again at its new position
+				return page(filter(walked)).collect(Collectors.toList()).stream();
+			}
 		}
-		List<T> list = values.collect(Collectors.toList());
-		if (!sorts.isEmpty()) {
-			Comparator<T> c = null;
-			for (Comparator<T> comparator : sorts) {
-				if (c == null) {
-					c = comparator;
-				} else {
-					c = c.thenComparing(comparator);
-				}
+		Stream<T> values = matches(store, selected);
+		if (sorts.isEmpty()) {
+			return page(values);
+		}
+		Comparator<T> c = null;
+		for (Comparator<T> comparator : sorts) {
+			if (c == null) {
+				c = comparator;
+			} else {
+				c = c.thenComparing(comparator);
 			}
-			list.sort(c);
 		}
 		if (limit != null) {
-			list = list.subList(offset, offset + limit);
+			List<T> top = top(values, c, (int) Math.min(Integer.MAX_VALUE, (long) offset + limit));
+			return top.subList(Math.min(offset, top.size()), top.size()).stream();
 		}
+		List<T> list = values.collect(Collectors.toList());
+		list.sort(c);
 		return list.stream();
 	}
 
+	// Streams the filtered rows lazily, in no particular order
+	private Stream<T> matches(TestDoubleStore<T> store, Map<Object, T> selected) {
+		if (selected != store) {
+			return filter(selected.values().stream());
+		}
+		Stream<T> ranged = ranged(store);
+		return filter(ranged != null ? ranged : store.scan());
+	}
+
+	private Stream<T> ranged(TestDoubleStore<T> store) {
+		for (Map.Entry<Token, TestDoubleStore.Range> range : ranges.entrySet()) {
+			Stream<T> values = store.ordered(range.getKey(), range.getValue(), false);
+			if (values != null) {
+				return values;
+			}
+		}
+		return null;
+	}
+
+	private Stream<T> filter(Stream<T> values) {
+		for (Predicate<T> filter : boundFilters()) {
+			values = values.filter(filter);
+		}
+		return values;
+	}
+
+	// Sub queries are evaluated once here, rather than once for every row they filter
+	private List<Predicate<T>> boundFilters() {
+		List<Predicate<T>> bound = new ArrayList<>(filters.size());
+		for (Predicate<T> filter : filters) {
+			bound.add(filter instanceof SemiJoin ? ((SemiJoin<T>) filter).bind() : filter);
+		}
+		return bound;
+	}
+
+	private Stream<T> page(Stream<T> values) {
+		return limit != null ? values.skip(offset).limit(limit) : values;
+	}
+
+	// Keeps only the k first rows in a bounded max-heap instead of sorting every match
+	private List<T> top(Stream<T> values, Comparator<T> comparator, int k) {
+		if (k <= 0) {
+			return new ArrayList<>();
+		}
+		PriorityQueue<T> heap = new PriorityQueue<>(Math.min(k, 1024), comparator.reversed());
+		values.forEach(t -> {
+			if (heap.size() < k) {
+				heap.add(t);
+			} else if (comparator.compare(t, heap.peek()) < 0) {
+				heap.poll();
+				heap.add(t);
+			}
+		});
+		List<T> top = new ArrayList<>(heap);
+		top.sort(comparator);
+		return top;
+	}
+
 	@Override
 	public long count() {
-		return execute().count();
+		// Counting needs neither order nor copies of the rows
+		TestDoubleStore<T> store = testDoubleDb.getIndexedStore(clazz);
+		long count = matches(store, store.select(equalities)).count();
+		return limit != null ? Math.max(0, Math.min(limit, count - offset)) : count;
 	}
 
 	@Override
 	public CrudRepository.CrudUpdateResult delete() {
-		Stream<T> values = testDoubleDb.getStore(clazz).values().stream();
-		for (Predicate<T> filter : filters) {
-			values = values.filter(filter);
-		}
 		List<Object> toDelete = new ArrayList<>();
-		testDoubleDb.getStore(clazz).entrySet().forEach(entry -> {
+		List<Predicate<T>> filters = boundFilters();
+		testDoubleDb.getIndexedStore(clazz).select(equalities).entrySet().forEach(entry -> {
 			for (Predicate<T> filter : filters) {
 				if (!filter.test(entry.getValue())) {
 					return;
@@ -215,7 +311,7 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 			}
 			toDelete.add(entry.getKey());
 		});
-		toDelete.forEach(d -> testDoubleDb.getStore(clazz).remove(d));
+		toDelete.forEach(d -> testDoubleDb.getIndexedStore(clazz).remove(d));
 		return () -> toDelete.size();
 	}
 
@@ -223,4 +319,53 @@ public abstract class TestDoubleQuery<T, Z extends CrudRepository.InlineQuery<T,
 		return (X) mappingHelper.getValue(t, property);
 	}
 
+	// Matches the rows whose from keys are among the to keys of the sub query's rows
+	private static class SemiJoin<T> implements Predicate<T> {
+		private final CrudRepository.InlineQuery<?, ?> query;
+		private final Property<?>[] fromKeys;
+		private final Property<?>[] toKeys;
+		private final MappingHelper mappingHelper;
+
+		private SemiJoin(CrudRepository.InlineQuery<?, ?> query, Property<?>[] fromKeys, Property<?>[] toKeys, MappingHelper mappingHelper) {
+			this.query = query;
+			this.fromKeys = fromKeys;
+			this.toKeys = toKeys;
+			this.mappingHelper = mappingHelper;
+		}
+
+		@Override
+		public boolean test(T t) {
+			return bind().test(t);
+		}
+
+		private Predicate<T> bind() {
+			Set<Object> keys = new HashSet<>();
+			Stream<?> rows = query instanceof TestDoubleQuery ? ((TestDoubleQuery<?, ?>) query).executeInternal() : query.execute();
+			rows.forEach(row -> {
+				Object key = keyOf(row, toKeys);
+				if (key != null) {
+					keys.add(key);
+				}
+			});
+			return t -> {
+				Object key = keyOf(t, fromKeys);
+				return key != null && keys.contains(key);
+			};
+		}
+
+		private Object keyOf(Object row, Property<?>[] properties) {
+			if (properties.length == 1) {
+				return mappingHelper.getValue(row, properties[0]);
+			}
+			Object[] values = new Object[properties.length];
+			for (int i = 0; i < properties.length; i++) {
+				values[i] = mappingHelper.getValue(row, properties[i]);
+				if (values[i] == null) {
+					return null;
+				}
+			}
+			return Arrays.asList(values);
+		}
+	}
+
 }
@@ -29,10 +29,10 @@ public abstract class TestDoubleResolver<T> implements DbResolver<T> {
 
 	private <FROM, TO> Stream<TO> getStream(RelationDescriber relationDescriber, FROM from) {
 		CrudRepository.InlineQuery<TO, ?> q = getQuery();
-		for (int i = 0; i < relationDescriber.getFromKeys().size(); i++) {
-			Property fk = relationDescriber.getFromKeys().get(i).getProperty();
-			Property tk = relationDescriber.getToKeys().get(i).getProperty();
-			q.eq(tk.value(mappingHelper.getValue(from, fk)));
+		Property[] fromKeys = relationDescriber.getFromKeys().properties();
+		Property[] toKeys = relationDescriber.getToKeys().properties();
+		for (int i = 0; i < fromKeys.length; i++) {
+			q.eq(toKeys[i].value(mappingHelper.getValue(from, fromKeys[i])));
 		}
 		return q.execute();
 	}
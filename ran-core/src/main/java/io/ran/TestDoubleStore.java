@@ -0,0 +1,439 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.token.Token;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+// Rows are indexed by the values they have when they are put. Rows handed out by get, the entries and queries are the
+// stored instances, and must not be modified in place without putting them back, as their index entries would go stale.
+// Putting a row back re-indexes it. With assertions enabled, rows read through an index or a scan are checked for this.
+// Neither keys nor rows can be null.
+public class TestDoubleStore<T> extends AbstractMap<Object, T> {
+	private final Map<Object, T> rows;
+	private final Map<Object, Object[]> indexedKeys = new HashMap<>();
+	private final List<Index> indexes = new ArrayList<>();
+	private final List<OrderedIndex> orderedIndexes = new ArrayList<>();
+	private final Map<Token, OrderedIndex> orderedByToken = new HashMap<>();
+	private boolean indexable = true;
+	private Set<Entry<Object, T>> entrySet;
+
+	public TestDoubleStore(Class<T> modelType) {
+		// Scans iterate the rows lazily without holding the lock, which a concurrent map allows while rows are put
+		rows = new ConcurrentHashMap<>();
+		Set<List<Token>> seen = new HashSet<>();
+		for (KeySet keySet : TypeDescriberImpl.getTypeDescriber(modelType).indexes()) {
+			Property<?>[] properties = keySet.properties();
+			for (int length = 1; length <= properties.length; length++) {
+				Property<?>[] prefix = Arrays.copyOf(properties, length);
+				List<Token> tokens = new ArrayList<>();
+				for (Property<?> property : prefix) {
+					tokens.add(property.getToken());
+				}
+				if (seen.add(tokens)) {
+					indexes.add(new Index(prefix));
+				}
+			}
+			for (Property<?> property : properties) {
+				orderedByToken.computeIfAbsent(property.getToken(), token -> {
+					OrderedIndex index = new OrderedIndex(property);
+					orderedIndexes.add(index);
+					return index;
+				});
+			}
+		}
+	}
+
+	// Serves queries over a map that was put into the TestDoubleDb by hand, without any indexes
+	public TestDoubleStore(Map<Object, T> rows) {
+		this.rows = rows;
+	}
+
+	@Override
+	public synchronized int size() {
+		return rows.size();
+	}
+
+	@Override
+	public synchronized boolean containsKey(Object key) {
+		return key != null && rows.containsKey(key);
+	}
+
+	@Override
+	public synchronized T get(Object key) {
+		return key != null ? rows.get(key) : null;
+	}
+
+	@Override
+	public synchronized T put(Object key, T value) {
+		T existing = rows.put(key, value);
+		unindex(key);
+		index(key, value);
+		return existing;
+	}
+
+	@Override
+	public synchronized T remove(Object key) {
+		if (key == null) {
+			return null;
+		}
+		T existing = rows.remove(key);
+		unindex(key);
+		return existing;
+	}
+
+	@Override
+	public synchronized void clear() {
+		rows.clear();
+		clearIndexes();
+		indexable = true;
+	}
+
+	@Override
+	public synchronized Set<Entry<Object, T>> entrySet() {
+		if (entrySet == null) {
+			entrySet = new EntrySet();
+		}
+		return entrySet;
+	}
+
+	// Streams the rows lazily without copying them, rows put or removed while the stream is consumed may or may not be seen
+	public synchronized Stream<T> scan() {
+		assert rows.entrySet().stream().allMatch(row -> indexedAsStored(row.getKey(), row.getValue())) : stale();
+		return rows.values().stream();
+	}
+
+	// Returns the rows an index can narrow the equalities down to, or the whole store when no index covers them
+	public synchronized Map<Object, T> select(Map<Token, Object> equalities) {
+		if (!indexable || equalities.isEmpty()) {
+			return this;
+		}
+		Index best = null;
+		for (Index index : indexes) {
+			if ((best == null || index.tokens.length > best.tokens.length) && index.covers(equalities)) {
+				best = index;
+			}
+		}
+		if (best == null) {
+			return this;
+		}
+		Map<Object, T> selected = new LinkedHashMap<>();
+		Object indexed = best.rows.get(best.keyOf(equalities));
+		if (indexed != null) {
+			keys(indexed).forEach(key -> {
+				T row = rows.get(key);
+				assert indexedAsStored(key, row) : stale(key);
+				selected.put(key, row);
+			});
+		}
+		return selected;
+	}
+
+	// Walks the rows of the property's ordered index within the range, or returns null when there is no such index.
+	// Without a range every row must be in the index, as rows with a null value would otherwise go missing.
+	// The walk is over the live index, so a row put with a new value while it is consumed can be walked again
+	public synchronized Stream<T> ordered(Token token, Range range, boolean descending) {
+		OrderedIndex index = orderedByToken.get(token);
+		if (index == null || !indexable || (range == null && index.size != rows.size())) {
+			return null;
+		}
+		NavigableMap<Object, Object> ordered = range != null ? range.of(index.rows) : index.rows;
+		if (descending) {
+			ordered = ordered.descendingMap();
+		}
+		return ordered.values().stream()
+				.flatMap(TestDoubleStore::keys)
+				.map(key -> {
+					T row = get(key);
+					assert row == null || indexedAsStored(key, row) : stale(key);
+					return row;
+				})
+				.filter(Objects::nonNull);
+	}
+
+	private synchronized boolean indexedAsStored(Object key, T row) {
+		Object[] keys = indexedKeys.get(key);
+		if (keys == null) {
+			return true;
+		}
+		for (int i = 0; i < indexes.size(); i++) {
+			if (!Objects.equals(keys[i], indexes.get(i).keyOf((Mapping) row))) {
+				return false;
+			}
+		}
+		for (int i = 0; i < orderedIndexes.size(); i++) {
+			Object value = ((Mapping) row)._getValue(orderedIndexes.get(i).property);
+			if (!Objects.equals(keys[indexes.size() + i], value instanceof Comparable ? value : null)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String stale(Object key) {
+		return "The row " + key + " was modified in place, put it back into the store to re-index it";
+	}
+
+	private static String stale() {
+		return "A row was modified in place, put it back into the store to re-index it";
+	}
+
+	private void index(Object key, T value) {
+		if ((indexes.isEmpty() && orderedIndexes.isEmpty()) || !indexable) {
+			return;
+		}
+		if (!(value instanceof Mapping)) {
+			// Without a mapping we can not read the key values, so every query falls back to a scan
+			indexable = false;
+			clearIndexes();
+			return;
+		}
+		Object[] keys = new Object[indexes.size() + orderedIndexes.size()];
+		for (int i = 0; i < indexes.size(); i++) {
+			Index index = indexes.get(i);
+			keys[i] = index.keyOf((Mapping) value);
+			index(index.rows, keys[i], key, LinkedHashSet::new);
+		}
+		for (int i = 0; i < orderedIndexes.size(); i++) {
+			OrderedIndex index = orderedIndexes.get(i);
+			Object orderedKey = ((Mapping) value)._getValue(index.property);
+			if (orderedKey instanceof Comparable) {
+				keys[indexes.size() + i] = orderedKey;
+				index(index.rows, orderedKey, key, ConcurrentHashMap::newKeySet);
+				index.size++;
+			}
+		}
+		indexedKeys.put(key, keys);
+	}
+
+	private void unindex(Object key) {
+		Object[] keys = indexedKeys.remove(key);
+		if (keys == null) {
+			return;
+		}
+		for (int i = 0; i < indexes.size(); i++) {
+			unindex(indexes.get(i).rows, keys[i], key);
+		}
+		for (int i = 0; i < orderedIndexes.size(); i++) {
+			Object orderedKey = keys[indexes.size() + i];
+			if (orderedKey != null) {
+				OrderedIndex index = orderedIndexes.get(i);
+				unindex(index.rows, orderedKey, key);
+				index.size--;
+			}
+		}
+	}
+
+	// Index entries hold the row key itself until a second row shares the indexed value, which saves a set per unique value
+	private static void index(Map<Object, Object> indexRows, Object indexKey, Object key, Supplier<Set<Object>> sets) {
+		Object indexed = indexRows.putIfAbsent(indexKey, key);
+		if (indexed instanceof Keys) {
+			((Keys) indexed).keys.add(key);
+		} else if (indexed != null) {
+			Set<Object> keys = sets.get();
+			keys.add(indexed);
+			keys.add(key);
+			indexRows.put(indexKey, new Keys(keys));
+		}
+	}
+
+	private static void unindex(Map<Object, Object> indexRows, Object indexKey, Object key) {
+		Object indexed = indexRows.get(indexKey);
+		if (indexed instanceof Keys) {
+			Set<Object> keys = ((Keys) indexed).keys;
+			keys.remove(key);
+			if (keys.isEmpty()) {
+				indexRows.remove(indexKey);
+			}
+		} else if (Objects.equals(indexed, key)) {
+			indexRows.remove(indexKey);
+		}
+	}
+
+	private static Stream<Object> keys(Object indexed) {
+		return indexed instanceof Keys ? ((Keys) indexed).keys.stream() : Stream.of(indexed);
+	}
+
+	private void clearIndexes() {
+		indexedKeys.clear();
+		indexes.forEach(index -> index.rows.clear());
+		orderedIndexes.forEach(index -> {
+			index.rows.clear();
+			index.size = 0;
+		});
+	}
+
+	public static class Range {
+		private Object from;
+		private boolean fromInclusive;
+		private Object to;
+		private boolean toInclusive;
+
+		public Range from(Object value, boolean inclusive) {
+			int c = from == null ? 1 : compare(value, from);
+			if (c > 0 || (c == 0 && !inclusive)) {
+				from = value;
+				fromInclusive = inclusive;
+			}
+			return this;
+		}
+
+		public Range to(Object value, boolean inclusive) {
+			int c = to == null ? -1 : compare(value, to);
+			if (c < 0 || (c == 0 && !inclusive)) {
+				to = value;
+				toInclusive = inclusive;
+			}
+			return this;
+		}
+
+		private NavigableMap<Object, Object> of(NavigableMap<Object, Object> rows) {
+			if (from != null && to != null) {
+				if (compare(from, to) > 0) {
+					return Collections.emptyNavigableMap();
+				}
+				return rows.subMap(from, fromInclusive, to, toInclusive);
+			} else if (from != null) {
+				return rows.tailMap(from, fromInclusive);
+			} else if (to != null) {
+				return rows.headMap(to, toInclusive);
+			}
+			return rows;
+		}
+
+		private static int compare(Object a, Object b) {
+			return ((Comparable) a).compareTo(b);
+		}
+	}
+
+	private static class Keys {
+		private final Set<Object> keys;
+
+		private Keys(Set<Object> keys) {
+			this.keys = keys;
+		}
+	}
+
+	private static class OrderedIndex {
+		private final Property<?> property;
+		private final NavigableMap<Object, Object> rows = new ConcurrentSkipListMap<>();
+		private int size;
+
+		private OrderedIndex(Property<?> property) {
+			this.property = property;
+		}
+	}
+
+	private static class Index {
+		private final Property<?>[] properties;
+		private final Token[] tokens;
+		private final Map<Object, Object> rows = new HashMap<>();
+
+		private Index(Property<?>[] properties) {
+			this.properties = properties;
+			this.tokens = new Token[properties.length];
+			for (int i = 0; i < properties.length; i++) {
+				tokens[i] = properties[i].getToken();
+			}
+		}
+
+		private boolean covers(Map<Token, Object> equalities) {
+			for (Token token : tokens) {
+				if (!equalities.containsKey(token)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private Object keyOf(Map<Token, Object> equalities) {
+			if (tokens.length == 1) {
+				return equalities.get(tokens[0]);
+			}
+			Object[] values = new Object[tokens.length];
+			for (int i = 0; i < tokens.length; i++) {
+				values[i] = equalities.get(tokens[i]);
+			}
+			return Arrays.asList(values);
+		}
+
+		private Object keyOf(Mapping mapping) {
+			if (properties.length == 1) {
+				return mapping._getValue(properties[0]);
+			}
+			Object[] values = new Object[properties.length];
+			for (int i = 0; i < properties.length; i++) {
+				values[i] = mapping._getValue(properties[i]);
+			}
+			return Arrays.asList(values);
+		}
+	}
+
+	private class EntrySet extends AbstractSet<Entry<Object, T>> {
+		@Override
+		public int size() {
+			return TestDoubleStore.this.size();
+		}
+
+		@Override
+		public Iterator<Entry<Object, T>> iterator() {
+			Iterator<Entry<Object, T>> iterator = rows.entrySet().iterator();
+			return new Iterator<Entry<Object, T>>() {
+				private Entry<Object, T> current;
+
+				@Override
+				public boolean hasNext() {
+					return iterator.hasNext();
+				}
+
+				@Override
+				public Entry<Object, T> next() {
+					Entry<Object, T> entry = iterator.next();
+					current = entry;
+					return new SimpleEntry<Object, T>(entry) {
+						@Override
+						public T setValue(T value) {
+							synchronized (TestDoubleStore.this) {
+								super.setValue(value);
+								return put(entry.getKey(), value);
+							}
+						}
+					};
+				}
+
+				@Override
+				public void remove() {
+					synchronized (TestDoubleStore.this) {
+						iterator.remove();
+						unindex(current.getKey());
+					}
+				}
+			};
+		}
+	}
+}
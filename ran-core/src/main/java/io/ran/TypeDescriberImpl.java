@@ -15,97 +15,73 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 public class TypeDescriberImpl<T> implements TypeDescriber<T> {
-	private static Map<Class, TypeDescriber> descibers = new ConcurrentHashMap<>();
-	private Clazz<T> clazz;
-	private KeySet primaryKeys = null;
-	private Property.PropertyList fields = null;
-	private Property.PropertyList allFields = null;
-
-	private RelationDescriber.RelationDescriberList relations = null;
-	private Annotations annotations = new Annotations();
-	private List<KeySet> indexes;
-	private List<ClazzMethod> methods;
+	private static final ClassValue<TypeDescriberImpl<?>> describers = new ClassValue<TypeDescriberImpl<?>>() {
+		@Override
+		protected TypeDescriberImpl<?> computeValue(Class<?> type) {
+			return new TypeDescriberImpl<>(Clazz.of(type));
+		}
+	};
+	private final Clazz<T> clazz;
+	private final KeySet primaryKeys;
+	private final Property.PropertyList fields;
+	private final Property.PropertyList allFields;
+	private final Annotations annotations = new Annotations();
+	private final List<KeySet> indexes;
+	private final List<ClazzMethod> methods;
+	// Relations can refer back to this type, so they are described on first use rather than in the constructor
+	private volatile RelationDescriber.RelationDescriberList relations = null;
 
 	private TypeDescriberImpl(Clazz<T> clazz) {
 		this.clazz = clazz;
 		annotations.addFrom(clazz);
 		AutoMapper.map(clazz.clazz);
+		KeySets keys = clazz.getKeys();
+		keys.values().forEach(KeySet::freeze);
+		primaryKeys = keys.getPrimaryOptionally().orElse(null);
+		indexes = keys.values().stream().filter(ks -> !ks.isPrimary()).collect(Collectors.toList());
+		fields = pinTokens(clazz.getProperties());
+		allFields = pinTokens(clazz.getAllFields());
+		methods = clazz.methods();
 	}
 
 	public static <X> TypeDescriber<X> getTypeDescriber(Class<X> tClass) {
-		if (!descibers.containsKey(tClass)) {
-			synchronized (TypeDescriberImpl.class) {
-				if (!descibers.containsKey(tClass)) {
-					return descibers.computeIfAbsent(tClass, c -> new TypeDescriberImpl<>(Clazz.of(tClass)));
-				}
-			}
-		}
-		return descibers.get(tClass);
+		return (TypeDescriber<X>) describers.get(tClass);
 	}
 
 	@Override
 	public KeySet primaryKeys() {
 		if (primaryKeys == null) {
-			synchronized (this) {
-				if (primaryKeys == null) {
-					primaryKeys = clazz.getKeys().getPrimary();
-				}
-			}
+			throw new RuntimeException("Missing primary key in keysets");
 		}
 		return primaryKeys;
 	}
 
 	@Override
 	public List<KeySet> indexes() {
-		if (indexes == null) {
-			synchronized (this) {
-				if (indexes == null) {
-					indexes = clazz.getKeys().values().stream().filter(ks -> !ks.isPrimary()).collect(Collectors.toList());
-				}
-			}
-		}
 		return indexes;
 	}
 
 	@Override
 	public Property.PropertyList fields() {
-		if (fields == null) {
-			synchronized (this) {
-				if (fields == null) {
-					fields = clazz.getProperties();
-				}
-			}
-		}
 		return fields;
 	}
 
 	@Override
 	public Property.PropertyList allFields() {
-		if (allFields == null) {
-			synchronized (this) {
-				if (allFields == null) {
-					allFields = clazz.getAllFields();
-				}
-			}
-		}
 		return allFields;
 	}
 
+	private static Property.PropertyList pinTokens(Property.PropertyList properties) {
+		properties.forEach(property -> Token.pin(property.getToken()));
+		return properties;
+	}
+
 	@Override
 	public List<ClazzMethod> methods() {
-		if (methods == null) {
-			synchronized (this) {
-				if (methods == null) {
-					methods = clazz.methods();
-				}
-			}
-		}
 		return methods;
 	}
 
@@ -115,10 +91,14 @@ public class TypeDescriberImpl<T> implements TypeDescriber<T> {
 
 	@Override
 	public RelationDescriber.RelationDescriberList relations() {
+		RelationDescriber.RelationDescriberList relations = this.relations;
 		if (relations == null) {
 			synchronized (this) {
+				relations = this.relations;
 				if (relations == null) {
 					relations = new RelationDescriber.RelationDescriberList(clazz).addRelations(getRelations(clazz));
+					relations.forEach(RelationDescriber::freezeKeys);
+					this.relations = relations;
 				}
 			}
 		}
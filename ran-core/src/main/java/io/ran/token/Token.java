@@ -8,44 +8,146 @@
  */
 package io.ran.token;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
+// Tokens are immutable and interned on their parts, so there is only one token for each list of parts and equality
+// is identity. The common formats are computed when the token is created.
+// The intern tables only hold weak references, so tokens built from e.g. request parameters are collected once they
+// are no longer used. Tokens of described properties are pinned and stay interned.
 public class Token {
-	List<String> parts = new ArrayList<>();
-	private static Map<String, Token> tokenMap = new ConcurrentHashMap<>();
-	private Map<Class, String> toStringMap = new ConcurrentHashMap<>();
+	private static final ReferenceQueue<Token> collected = new ReferenceQueue<>();
+	private static final Map<String, TokenReference<String>> anyFormatTokens = new ConcurrentHashMap<>();
+	private static final Map<String, TokenReference<String>> camelCaseTokens = new ConcurrentHashMap<>();
+	private static final Map<String, TokenReference<String>> camelHumpTokens = new ConcurrentHashMap<>();
+	private static final Map<String, TokenReference<String>> snakeCaseTokens = new ConcurrentHashMap<>();
+	private static final Map<String, TokenReference<String>> humanReadableTokens = new ConcurrentHashMap<>();
+	private static final Map<List<String>, TokenReference<List<String>>> interned = new ConcurrentHashMap<>();
+	private static final Set<Token> pinned = ConcurrentHashMap.newKeySet();
+	private static final ClassValue<Constructor<?>> tokenTypeConstructors = new ClassValue<Constructor<?>>() {
+		@Override
+		protected Constructor<?> computeValue(Class<?> type) {
+			try {
+				return type.getConstructor();
+			} catch (NoSuchMethodException e) {
+				throw new InvalidTokenException(e);
+			}
+		}
+	};
+
+	final List<String> parts;
+	private final int hash;
+	private final String snakeCase;
+	private final String camelHump;
+	private final String camelBack;
+	private final String javaGetter;
+	private String humanReadable;
 
 	private Token(List<String> parts) {
 		if (parts.stream().anyMatch(String::isEmpty)) {
 			throw new InvalidTokenException("Empty token part in: {" + String.join("}{", parts) + "}");
 		}
-		this.parts.addAll(parts);
+		this.parts = parts;
+		this.hash = parts.hashCode();
+		if (parts.isEmpty()) {
+			snakeCase = camelHump = camelBack = javaGetter = "";
+		} else {
+			snakeCase = new SnakeCaseToken(this).toString();
+			camelHump = new CamelHumpToken(this).toString();
+			camelBack = new CamelCaseToken(this).toString();
+			javaGetter = parts.get(0).length() == 1 ? camelHump : camelBack;
+		}
 	}
 
 	static public Token get(String anyFormat) {
-		if (anyFormat.toLowerCase().contains(" ")) {
+		return intern(anyFormatTokens, anyFormat, Token::parse);
+	}
+
+	private static Token parse(String anyFormat) {
+		if (anyFormat.indexOf(' ') >= 0) {
 			return humanReadable(anyFormat);
 		}
-		if (anyFormat.substring(0, 1).toUpperCase().equals(anyFormat.substring(0, 1))) {
+		char first = anyFormat.charAt(0);
+		if (Character.toUpperCase(first) == first) {
 			return CamelCase(anyFormat);
 		}
-		if (anyFormat.toLowerCase().equals(anyFormat)) {
+		if (isLowerCase(anyFormat)) {
 			return snake_case(anyFormat);
 		}
 		return camelHump(anyFormat);
 	}
 
+	private static boolean isLowerCase(String tokenString) {
+		for (int i = 0; i < tokenString.length(); i++) {
+			char c = tokenString.charAt(i);
+			if (Character.toLowerCase(c) != c) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	// Looks the raw string up in the table of its format first, so only strings that haven't been seen are parsed
+	private static Token intern(Map<String, TokenReference<String>> tokens, String tokenString, Function<String, Token> parser) {
+		TokenReference<String> reference = tokens.get(tokenString);
+		Token token = reference != null ? reference.get() : null;
+		if (token == null) {
+			expungeCollected();
+			token = parser.apply(tokenString);
+			tokens.put(tokenString, new TokenReference<>(token, tokens, tokenString));
+		}
+		return token;
+	}
+
 	static public Token of(String... parts) {
-		return new Token(Arrays.asList(parts));
+		return of(Arrays.asList(parts));
 	}
 
 	static public Token of(List<String> parts) {
-		return new Token(parts);
+		TokenReference<List<String>> reference = interned.get(parts);
+		Token token = reference != null ? reference.get() : null;
+		if (token != null) {
+			return token;
+		}
+		expungeCollected();
+		Token[] result = new Token[1];
+		interned.compute(Collections.unmodifiableList(new ArrayList<>(parts)), (key, existing) -> {
+			result[0] = existing != null ? existing.get() : null;
+			if (result[0] != null) {
+				return existing;
+			}
+			result[0] = new Token(key);
+			return new TokenReference<>(result[0], interned, key);
+		});
+		return result[0];
+	}
+
+	// Keeps the token interned for as long as the application runs
+	public static Token pin(Token token) {
+		pinned.add(token);
+		return token;
+	}
+
+	// The number of tokens currently interned, including pinned tokens
+	public static int poolSize() {
+		expungeCollected();
+		return interned.size();
+	}
+
+	private static void expungeCollected() {
+		TokenReference<?> reference;
+		while ((reference = (TokenReference<?>) collected.poll()) != null) {
+			reference.remove();
+		}
 	}
 
 	static public TokenList list() {
@@ -53,49 +155,51 @@ public class Token {
 	}
 
 	public static Token CamelCase(String tokenString) {
-		return tokenMap.computeIfAbsent(tokenString + "_CamelCase", t -> {
-			return new CamelCaseToken(tokenString).toToken();
-		});
+		return intern(camelCaseTokens, tokenString, t -> new CamelCaseToken(t).toToken());
 	}
 
 	public static Token camelHump(String tokenString) {
-		return tokenMap.computeIfAbsent(tokenString + "_camelHump", t -> {
-			return new CamelHumpToken(tokenString).toToken();
-		});
+		return intern(camelHumpTokens, tokenString, t -> new CamelHumpToken(t).toToken());
 	}
 
 	public static Token snake_case(String tokenString) {
-		return tokenMap.computeIfAbsent(tokenString + "_snake_case", t -> {
-			return new SnakeCaseToken(tokenString).toToken();
-		});
+		return intern(snakeCaseTokens, tokenString, t -> new SnakeCaseToken(t).toToken());
 	}
 
 	public static Token javaMethod(String tokenString) {
-		return tokenMap.computeIfAbsent(tokenString + "_javaMethod", t -> {
-			if (tokenString.substring(0, 1).equals(tokenString.substring(0, 1).toLowerCase())) {
-				return new CamelHumpToken(tokenString).toToken();
-			} else {
-				return new CamelCaseToken(tokenString).toToken();
-			}
-		});
+		char first = tokenString.charAt(0);
+		if (Character.toLowerCase(first) == first) {
+			return camelHump(tokenString);
+		} else {
+			return CamelCase(tokenString);
+		}
 	}
 
 	public static Token humanReadable(String tokenString) {
-		return new HumanReadableToken(tokenString).toToken();
+		return intern(humanReadableTokens, tokenString, t -> new HumanReadableToken(t).toToken());
 	}
 
 	public <T extends TokenType> String toString(Class<T> type) {
+		if (type == SnakeCaseToken.class) {
+			return snakeCase;
+		} else if (type == CamelHumpToken.class) {
+			return camelHump;
+		} else if (type == CamelCaseToken.class) {
+			return camelBack;
+		} else if (type == HumanReadableToken.class) {
+			return humanReadable();
+		}
+		return format(type);
+	}
 
-		return toStringMap.computeIfAbsent(type, t -> {
-			try {
-				T tokenType = type.newInstance();
-				tokenType.setToken(this);
-				return tokenType.toString();
-			} catch (InstantiationException | IllegalAccessException e) {
-				throw new InvalidTokenException(e);
-			}
-		});
-
+	private String format(Class<? extends TokenType> type) {
+		try {
+			TokenType tokenType = (TokenType) tokenTypeConstructors.get(type).newInstance();
+			tokenType.setToken(this);
+			return tokenType.toString();
+		} catch (ReflectiveOperationException e) {
+			throw new InvalidTokenException(e);
+		}
 	}
 
 	@Override
@@ -112,33 +216,47 @@ public class Token {
 	}
 
 	public String snake_case() {
-		return toString(SnakeCaseToken.class);
+		return snakeCase;
 	}
 
 	public String camelHump() {
-		return toString(CamelHumpToken.class);
+		return camelHump;
 	}
 
 	public String CamelBack() {
-		return toString(CamelCaseToken.class);
+		return camelBack;
 	}
 
 	public String javaGetter() {
-		if (parts.get(0).length() == 1) {
-			return camelHump();
-		} else {
-			return CamelBack();
-		}
+		return javaGetter;
 	}
 
 	public String humanReadable() {
-		return toString(HumanReadableToken.class);
+		if (humanReadable == null) {
+			humanReadable = parts.isEmpty() ? "" : format(HumanReadableToken.class);
+		}
+		return humanReadable;
 	}
 
 	public boolean endsWith(String id) {
 		return parts.get(parts.size() - 1).equals(id);
 	}
 
+	static class TokenReference<K> extends WeakReference<Token> {
+		private final Map<K, TokenReference<K>> table;
+		private final K key;
+
+		TokenReference(Token token, Map<K, TokenReference<K>> table, K key) {
+			super(token, collected);
+			this.table = table;
+			this.key = key;
+		}
+
+		void remove() {
+			table.remove(key, this);
+		}
+	}
+
 	public static class TokenList extends ArrayList<Token> {
 		public void add(String snakeCase) {
 			add(Token.snake_case(snakeCase));
@@ -147,14 +265,11 @@ public class Token {
 
 	@Override
 	public boolean equals(Object o) {
-		if (this == o) return true;
-		if (o == null || getClass() != o.getClass()) return false;
-		Token token = (Token) o;
-		return Objects.equals(parts, token.parts);
+		return this == o;
 	}
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(parts);
+		return hash;
 	}
 }
@@ -0,0 +1,72 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.Bike;
+import io.ran.testclasses.BikeGear;
+import io.ran.testclasses.Car;
+import io.ran.testclasses.Engine;
+import io.ran.testclasses.IsItsOwnKeyRepository;
+import io.ran.testclasses.pregenerate.Customer;
+import io.ran.testclasses.pregenerate.Invoice;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AutoMapperMapAllTest {
+	@Test
+	public void mapAll_package() {
+		AutoMapper.mapAll("io.ran.testclasses.pregenerate");
+
+		assertNotNull(AutoMapper.getQueryMaps(Customer.class));
+		assertNotNull(AutoMapper.getQueryMaps(Invoice.class));
+		assertTrue(Mapping.class.isAssignableFrom(AutoMapper.get(Invoice.class)));
+	}
+
+	@Test
+	public void mapAll_classes_isIdempotent() {
+		AutoMapper.mapAll(Arrays.asList(Car.class, Engine.class, Bike.class, BikeGear.class, Car.class));
+		Class<?> car = AutoMapper.get(Car.class);
+
+		AutoMapper.mapAll(Arrays.asList(Car.class, Engine.class));
+
+		assertSame(car, AutoMapper.get(Car.class));
+		assertEquals(Car.class, car.getSuperclass());
+		assertNotNull(AutoMapper.getQueryMaps(BikeGear.class));
+	}
+
+	@Test
+	public void mapAll_package_returnsClassesThatCouldNotBeMapped() {
+		Map<Class<?>, RuntimeException> failures = AutoMapper.mapAll("io.ran.testclasses");
+
+		assertEquals(Collections.singleton(IsItsOwnKeyRepository.class), failures.keySet());
+		assertNotNull(AutoMapper.getQueryMaps(Bike.class));
+	}
+
+	@Test
+	public void mapAll_classes_failsAfterMappingTheOthers() {
+		try {
+			AutoMapper.mapAll(Arrays.asList(IsItsOwnKeyRepository.class, BikeGear.class));
+			fail("Expected the repository to fail mapping");
+		} catch (MappingFailedException e) {
+			assertEquals(Collections.singleton(IsItsOwnKeyRepository.class), e.getFailures().keySet());
+			assertEquals(1, e.getSuppressed().length);
+			assertTrue(e.getMessage().contains(IsItsOwnKeyRepository.class.getName()));
+		}
+		assertNotNull(AutoMapper.getQueryMaps(BikeGear.class));
+	}
+}
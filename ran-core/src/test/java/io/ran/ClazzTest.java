@@ -10,6 +10,7 @@ package io.ran;
 
 import io.ran.testclasses.GraphNode;
 import io.ran.testclasses.Regular;
+import io.ran.testclasses.Super;
 import io.ran.token.Token;
 import org.junit.Test;
 
@@ -18,6 +19,18 @@ import java.util.List;
 import static org.junit.Assert.*;
 
 public class ClazzTest {
+	@Test
+	public void properties_ordinals() {
+		Property.PropertyList properties = Clazz.of(Regular.class).getProperties();
+
+		assertEquals(0, properties.get("reg").ordinal(Regular.class));
+		assertEquals(1, properties.get("sup").ordinal(Regular.class));
+		assertEquals(1, properties.get("sup").copy().ordinal(Regular.class));
+		assertEquals(-1, properties.get("sup").ordinal(Super.class));
+		assertEquals(0, Clazz.of(Super.class).getProperties().get("sup").ordinal(Super.class));
+		assertEquals(-1, Property.get("reg", Clazz.of(String.class)).ordinal(Regular.class));
+	}
+
 	@Test
 	public void relations_via() {
 		List<RelationDescriber> relations = TypeDescriberImpl.getTypeDescriber(RelationFrom.class).relations();
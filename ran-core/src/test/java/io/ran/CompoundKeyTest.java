@@ -8,10 +8,13 @@
  */
 package io.ran;
 
+import io.ran.testclasses.BikeType;
+import io.ran.testclasses.BikeWheel;
 import io.ran.token.Token;
 import org.junit.Test;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 
 import static org.junit.Assert.*;
@@ -95,4 +98,76 @@ public class CompoundKeyTest {
 
 		assertFalse(map.containsKey(compoundKey2));
 	}
+
+	@Test
+	public void primaryKey_equalsCompoundKeyWithSameValues() throws Exception {
+		BikeWheel bikeWheel = AutoMapper.get(BikeWheel.class).newInstance();
+		bikeWheel.setBikeType(BikeType.Mountain);
+		bikeWheel.setSize(20);
+		CompoundKey primaryKey = ((Mapping) bikeWheel)._getKey();
+		assertTrue(primaryKey instanceof PrimaryCompoundKey);
+
+		CompoundKey compoundKey = new CompoundKey();
+		compoundKey.add(Property.get("bike_type", Clazz.of(BikeType.class)).value(BikeType.Mountain));
+		compoundKey.add(Property.get("size", Clazz.of(Integer.class)).value(20));
+
+		assertEquals(compoundKey, primaryKey);
+		assertEquals(primaryKey, compoundKey);
+		assertEquals(compoundKey.hashCode(), primaryKey.hashCode());
+		assertEquals(compoundKey.getValues(), primaryKey.getValues());
+
+		Map<CompoundKey, Boolean> map = new HashMap<>();
+		map.put(compoundKey, true);
+		assertTrue(map.containsKey(primaryKey));
+	}
+
+	@Test
+	public void primaryKey_cannotBeModified() throws Exception {
+		BikeWheel bikeWheel = AutoMapper.get(BikeWheel.class).newInstance();
+		bikeWheel.setBikeType(BikeType.Mountain);
+		bikeWheel.setSize(20);
+		PrimaryCompoundKey primaryKey = (PrimaryCompoundKey) ((Mapping) bikeWheel)._getKey();
+		int hash = primaryKey.hashCode();
+
+		Property.PropertyValueList values = primaryKey.getValues();
+		for (Runnable modification : new Runnable[]{
+				() -> values.add(Property.get("size", Clazz.of(Integer.class)).value(21)),
+				() -> values.remove(0),
+				() -> values.clear(),
+				() -> {
+					Iterator<?> iterator = values.iterator();
+					iterator.next();
+					iterator.remove();
+				},
+				() -> values.subList(0, 1).clear(),
+				() -> primaryKey.add("other", String.class, "value")}) {
+			try {
+				modification.run();
+				fail("Expected the primary key to be unmodifiable");
+			} catch (UnsupportedOperationException e) {
+				// expected
+			}
+		}
+		assertEquals(2, values.size());
+		assertEquals(hash, primaryKey.hashCode());
+
+		CompoundKey copy = primaryKey.toCompoundKey();
+		assertEquals(primaryKey, copy);
+		copy.add("other", String.class, "value");
+		assertEquals(3, copy.getValues().size());
+		assertNotEquals(primaryKey, copy);
+	}
+
+	@Test
+	public void primaryKey_equalsPrimaryKeyWithSameValues() throws Exception {
+		BikeWheel bikeWheel = AutoMapper.get(BikeWheel.class).newInstance();
+		bikeWheel.setBikeType(BikeType.Mountain);
+		bikeWheel.setSize(20);
+		CompoundKey primaryKey = ((Mapping) bikeWheel)._getKey();
+
+		assertEquals(primaryKey, ((Mapping) bikeWheel)._getKey());
+		bikeWheel.setSize(21);
+		assertNotEquals(primaryKey, ((Mapping) bikeWheel)._getKey());
+		assertEquals(21, ((Mapping) bikeWheel)._getKey().getValue(Token.of("size")));
+	}
 }
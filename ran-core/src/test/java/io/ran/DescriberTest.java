@@ -19,9 +19,14 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -169,6 +174,54 @@ public class DescriberTest {
 		assertTrue(carMapping._isChanged());
 	}
 
+	@Test
+	public void changedProperties() throws Throwable {
+		TypeDescriber<Car> describer = TypeDescriberImpl.getTypeDescriber(Car.class);
+		Car car = factory.get(Car.class);
+		Mapping carMapping = (Mapping) car;
+
+		assertTrue(carMapping._getChangedProperties().isEmpty());
+
+		car.setBrand(Brand.Porsche);
+		car.setTheBoolean(true);
+		carMapping._setValue(describer.fields().get("title"), "The car");
+
+		assertEquals(Arrays.asList(describer.fields().get("title"), describer.fields().get("brand"), describer.fields().get("the_boolean")), carMapping._getChangedProperties());
+		assertTrue(carMapping._isChanged(describer.fields().get("brand")));
+		assertTrue(carMapping._isChanged(Property.get("brand", Clazz.of(Brand.class))));
+		assertFalse(carMapping._isChanged(describer.fields().get("id")));
+
+		carMapping._resetChanged();
+
+		assertFalse(carMapping._isChanged());
+		assertFalse(carMapping._isChanged(describer.fields().get("brand")));
+		assertTrue(carMapping._getChangedProperties().isEmpty());
+	}
+
+	@Test
+	public void describer_isSharedAcrossThreads() throws Throwable {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<TypeDescriber<Door>>> tasks = new ArrayList<>();
+			for (int i = 0; i < 32; i++) {
+				tasks.add(() -> {
+					TypeDescriber<Door> describer = TypeDescriberImpl.getTypeDescriber(Door.class);
+					assertFalse(describer.fields().isEmpty());
+					assertNotNull(describer.relations());
+					return describer;
+				});
+			}
+			TypeDescriber<Door> describer = TypeDescriberImpl.getTypeDescriber(Door.class);
+			for (Future<TypeDescriber<Door>> future : executor.invokeAll(tasks)) {
+				assertSame(describer, future.get());
+				assertSame(describer.fields(), future.get().fields());
+				assertSame(describer.relations(), future.get().relations());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
 	@Test
 	public void handleGraphs() throws Throwable {
 		TypeDescriber<GraphNode> describer = TypeDescriberImpl.getTypeDescriber(GraphNode.class);
@@ -0,0 +1,68 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.Regular;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GenerationSettingsTest {
+	@After
+	public void tearDown() {
+		GenerationSettings.setMode(GenerationMode.Development);
+		GenerationSettings.setListener(null);
+	}
+
+	@Test
+	public void generationMode_ofName() {
+		assertEquals(GenerationMode.Development, GenerationMode.of(null));
+		assertEquals(GenerationMode.Production, GenerationMode.of("production"));
+		assertEquals(GenerationMode.Development, GenerationMode.of("DEVELOPMENT"));
+		assertTrue(GenerationMode.Development.verifies());
+		assertFalse(GenerationMode.Production.verifies());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void generationMode_unknown() {
+		GenerationMode.of("staging");
+	}
+
+	@Test
+	public void generateBytecode_reportsEachGeneratedClass() {
+		List<String> generated = new ArrayList<>();
+		GenerationSettings.setListener((className, generationNanos, verificationNanos) -> generated.add(className));
+
+		MapperGenerator.Bytecode bytecode = new MapperGenerator(null).generateBytecode(Clazz.of(Regular.class));
+
+		assertEquals(2, generated.size());
+		assertEquals(bytecode.getMappingName(), generated.get(0));
+		assertEquals(bytecode.getQueryName(), generated.get(1));
+	}
+
+	@Test
+	public void productionMode_generatesSameBytecodeWithoutVerifying() {
+		List<Long> verifications = new ArrayList<>();
+		GenerationSettings.setListener((className, generationNanos, verificationNanos) -> verifications.add(verificationNanos));
+		MapperGenerator.Bytecode verified = new MapperGenerator(null).generateBytecode(Clazz.of(Regular.class));
+
+		GenerationSettings.setMode(GenerationMode.Production);
+		MapperGenerator.Bytecode unverified = new MapperGenerator(null).generateBytecode(Clazz.of(Regular.class));
+
+		assertEquals(verified.getMapping().length, unverified.getMapping().length);
+		assertEquals(verified.getQuery().length, unverified.getQuery().length);
+		assertTrue(verifications.get(2) < verifications.get(0));
+	}
+}
@@ -12,6 +12,9 @@ import com.google.inject.Guice;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Key;
+import com.google.inject.Provider;
+
+import java.util.function.Supplier;
 
 public class GuiceHelper {
 	final Injector injector;
@@ -38,6 +41,12 @@ public class GuiceHelper {
 			return (T) injector.getInstance(ormMapper.get(clazz));
 		}
 
+		@Override
+		public <T> Supplier<T> getProvider(Class<T> clazz) {
+			Provider<?> provider = injector.getProvider(ormMapper.get(clazz));
+			return () -> (T) provider.get();
+		}
+
 		@Override
 		public <T> T getQueryInstance(Class<T> clazz) {
 			return injector.getInstance(ormMapper.getQueryMaps(clazz));
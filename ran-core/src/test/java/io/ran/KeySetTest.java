@@ -8,10 +8,14 @@
  */
 package io.ran;
 
+import io.ran.testclasses.BikeWheel;
+import io.ran.testclasses.Car;
 import io.ran.token.Token;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class KeySetTest {
@@ -35,4 +39,36 @@ public class KeySetTest {
 		KeySet keySet2 = KeySet.get(new KeySet.Field(Property.get(Token.snake_case("not_id"), Clazz.of(String.class)), 0));
 		assertFalse(keySet1.matchesKeys(keySet2));
 	}
+
+	@Test
+	public void positionalAndTokenAccess_followKeyOrder() {
+		KeySet keySet = KeySet.get(
+				new KeySet.Field(Property.get(Token.snake_case("second"), Clazz.of(String.class)), 1),
+				new KeySet.Field(Property.get(Token.snake_case("first"), Clazz.of(String.class)), 0));
+		assertEquals("first", keySet.get(0).getToken().snake_case());
+		assertEquals("second", keySet.get(1).getToken().snake_case());
+		assertEquals(1, keySet.get(Token.snake_case("second")).getOrder());
+		assertEquals("second", keySet.properties()[1].getSnakeCase());
+
+		keySet.add(Property.get(Token.snake_case("third"), Clazz.of(String.class)));
+		assertEquals("third", keySet.get(2).getToken().snake_case());
+		assertEquals(3, keySet.properties().length);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void frozen_cannotBeModified() {
+		KeySet keySet = KeySet.get(new KeySet.Field(Property.get(Token.snake_case("id"), Clazz.of(String.class)), 0)).freeze();
+		keySet.add(Property.get(Token.snake_case("other"), Clazz.of(String.class)));
+	}
+
+	@Test
+	public void describedKeys_areFrozen() {
+		KeySet primaryKeys = TypeDescriberImpl.getTypeDescriber(BikeWheel.class).primaryKeys();
+		assertTrue(primaryKeys.isFrozen());
+		assertSame(primaryKeys.properties(), primaryKeys.properties());
+
+		RelationDescriber relation = TypeDescriberImpl.getTypeDescriber(Car.class).relations().get(0);
+		assertTrue(relation.getFromKeys().isFrozen());
+		assertTrue(relation.getToKeys().isFrozen());
+	}
 }
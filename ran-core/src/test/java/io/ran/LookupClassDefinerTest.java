@@ -0,0 +1,139 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.Regular;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class LookupClassDefinerTest {
+	@Before
+	public void setup() {
+		Assume.assumeTrue(LookupClassDefiner.isSupported());
+		GenerationSettings.setDefineWithLookup(true);
+	}
+
+	@After
+	public void tearDown() {
+		GenerationSettings.setDefineWithLookup(false);
+	}
+
+	@Test
+	public void mapper_isDefinedInModelClassLoader() throws Exception {
+		ModelClassLoader classLoader = new ModelClassLoader(getClass().getClassLoader());
+		Class<?> model = classLoader.loadClass(Regular.class.getName());
+
+		Class<?> mapper = AutoMapper.get(model);
+
+		assertSame(classLoader, mapper.getClassLoader());
+		assertSame(model, mapper.getSuperclass());
+		assertSame(mapper, AutoMapper.get(model));
+		assertSame(classLoader, AutoMapper.getQueryMaps(model).getClassLoader());
+		Mapping mapping = (Mapping) mapper.newInstance();
+		mapping._setValue(Property.get("reg", Clazz.of(String.class)), "my reg");
+		assertEquals("my reg", mapping._getValue(Property.get("reg", Clazz.of(String.class))));
+	}
+
+	@Test
+	public void mapper_isUnloadedWithModelClassLoader() throws Exception {
+		WeakReference<ClassLoader> classLoader = mapInNewClassLoader();
+
+		for (int i = 0; i < 50 && classLoader.get() != null; i++) {
+			System.gc();
+			Thread.sleep(10);
+		}
+
+		assertNull(classLoader.get());
+	}
+
+	@Test
+	public void mapAll_definesInModelClassLoader() throws Exception {
+		ModelClassLoader classLoader = new ModelClassLoader(getClass().getClassLoader());
+		Class<?> model = classLoader.loadClass(Regular.class.getName());
+
+		AutoMapper.mapAll(Collections.singletonList(model));
+
+		assertSame(classLoader, AutoMapper.getQueryMaps(model).getClassLoader());
+		assertSame(classLoader, AutoMapper.get(model).getClassLoader());
+	}
+
+	@Test
+	public void wrapper_isDefinedInInterfaceClassLoader() {
+		Class<?> wrapper = new AutoWrapper(null).wrapToClassWithFactoryInjector("io/ran/LookupTestClassName", AutoWrapperTest.IMyValueInterface.class, AutoWrapperTest.MyTestFactory.class, "lookup");
+
+		assertEquals("io.ran.LookupTestClassName", wrapper.getName());
+		assertSame(AutoWrapperTest.IMyValueInterface.class.getClassLoader(), wrapper.getClassLoader());
+	}
+
+	@Test
+	public void wrapper_outsideInterfacePackage_usesSharedClassLoader() {
+		Class<?> wrapper = new AutoWrapper(null).wrapToClassWithFactoryInjector("LookupTestClassName", AutoWrapperTest.IMyValueInterface.class, AutoWrapperTest.MyTestFactory.class, "lookup");
+
+		assertEquals("LookupTestClassName", wrapper.getName());
+		assertTrue(wrapper.getClassLoader() instanceof AutoMapperClassLoader);
+	}
+
+	private WeakReference<ClassLoader> mapInNewClassLoader() throws Exception {
+		ModelClassLoader classLoader = new ModelClassLoader(getClass().getClassLoader());
+		Class<?> model = classLoader.loadClass(Regular.class.getName());
+		assertSame(classLoader, AutoMapper.get(model).getClassLoader());
+		return new WeakReference<>(classLoader);
+	}
+
+	private static class ModelClassLoader extends ClassLoader {
+		ModelClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			synchronized (getClassLoadingLock(name)) {
+				if (!name.equals(Regular.class.getName())) {
+					return super.loadClass(name, resolve);
+				}
+				Class<?> loaded = findLoadedClass(name);
+				if (loaded == null) {
+					byte[] bytes = read(name);
+					loaded = defineClass(name, bytes, 0, bytes.length);
+				}
+				return loaded;
+			}
+		}
+
+		private byte[] read(String name) throws ClassNotFoundException {
+			try (InputStream inputStream = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+				if (inputStream == null) {
+					throw new ClassNotFoundException(name);
+				}
+				ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+				byte[] buffer = new byte[4096];
+				int read;
+				while ((read = inputStream.read(buffer)) != -1) {
+					outputStream.write(buffer, 0, read);
+				}
+				return outputStream.toByteArray();
+			} catch (IOException e) {
+				throw new ClassNotFoundException(name, e);
+			}
+		}
+	}
+}
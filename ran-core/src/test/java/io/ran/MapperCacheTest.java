@@ -0,0 +1,94 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.Car;
+import io.ran.testclasses.Regular;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MapperCacheTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void generate_storesBytecodeInCache() {
+		Path directory = folder.getRoot().toPath();
+		MapperGenerator generator = new MapperGenerator(directory);
+
+		MapperGenerator.Bytecode generated = generator.getBytecode(Clazz.of(Regular.class));
+
+		Optional<MapperGenerator.Bytecode> cached = new MapperCache(directory).get(Regular.class);
+		assertTrue(cached.isPresent());
+		assertEquals(generated.getMappingName(), cached.get().getMappingName());
+		assertArrayEquals(generated.getMapping(), cached.get().getMapping());
+		assertArrayEquals(generated.getQuery(), cached.get().getQuery());
+	}
+
+	@Test
+	public void cachedBytecode_isUsedInsteadOfGenerating() {
+		Path directory = folder.getRoot().toPath();
+		MapperCache cache = new MapperCache(directory);
+		MapperGenerator.Bytecode marker = new MapperGenerator.Bytecode(Regular.class.getName() + MappingClassWriter.POSTFIX, new byte[]{1, 2, 3}, Regular.class.getName() + QueryClassWriter.POSTFIX, new byte[]{4, 5, 6});
+		cache.put(Regular.class, marker);
+
+		MapperGenerator.Bytecode actual = new MapperGenerator(directory).getBytecode(Clazz.of(Regular.class));
+
+		assertArrayEquals(new byte[]{1, 2, 3}, actual.getMapping());
+		assertArrayEquals(new byte[]{4, 5, 6}, actual.getQuery());
+	}
+
+	@Test
+	public void cachedBytecode_canBeDefined() {
+		Path directory = folder.getRoot().toPath();
+		new MapperGenerator(directory).getBytecode(Clazz.of(Car.class));
+
+		MapperGenerator.Wrapped wrapped = new MapperGenerator(directory).generate(new AutoMapperClassLoader(getClass().getClassLoader()), Clazz.of(Car.class));
+
+		assertEquals(Car.class, wrapped.mapping.getSuperclass());
+		assertEquals(Car.class, wrapped.query.getSuperclass());
+	}
+
+	@Test
+	public void version_doesNotDependOnWhereRanIsLoadedFrom() throws Exception {
+		for (String location : new String[]{"jar:file:/app.jar!/BOOT-INF/lib/ran-core.jar!/", "vfs:/content/app.war/WEB-INF/lib/ran-core.jar", "file:/does/not/exist.jar"}) {
+			ClassLoader classLoader = new RelocatedClassLoader(new URL(null, location, new URLStreamHandler() {
+				@Override
+				protected URLConnection openConnection(URL u) {
+					throw new UnsupportedOperationException();
+				}
+			}), getClass().getClassLoader());
+
+			assertEquals(MapperGenerator.VERSION, classLoader.loadClass(MapperGenerator.class.getName()).getField("VERSION").get(null));
+		}
+	}
+
+	@Test
+	public void entry_isKeyedByModelBytecode() {
+		MapperCache cache = new MapperCache(folder.getRoot().toPath());
+
+		assertEquals(cache.entry(Regular.class), cache.entry(Regular.class));
+		assertNotEquals(cache.entry(Regular.class), cache.entry(Car.class));
+		assertFalse(Files.exists(cache.entry(Regular.class).get()));
+	}
+}
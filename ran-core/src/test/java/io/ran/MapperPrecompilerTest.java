@@ -0,0 +1,151 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.Regular;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MapperPrecompilerTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void precompile_writesMapperAndQueryClasses() throws Exception {
+		Path output = folder.getRoot().toPath();
+		MapperPrecompiler precompiler = new MapperPrecompiler(output, getClass().getClassLoader());
+
+		List<Class<?>> precompiled = precompiler.precompile(Regular.class.getName());
+
+		assertEquals(1, precompiled.size());
+		assertTrue(Files.exists(output.resolve("io/ran/testclasses/Regular$Ran$Mapper.class")));
+		assertTrue(Files.exists(output.resolve("io/ran/testclasses/Regular$Ran$Query.class")));
+	}
+
+	@Test
+	public void precompile_package() throws Exception {
+		Path output = folder.getRoot().toPath();
+		MapperPrecompiler precompiler = new MapperPrecompiler(output, getClass().getClassLoader());
+
+		List<Class<?>> precompiled = precompiler.precompile("io.ran.testclasses.*");
+
+		assertTrue(precompiled.contains(Regular.class));
+		assertTrue(Files.exists(output.resolve("io/ran/testclasses/Car$Ran$Mapper.class")));
+	}
+
+	@Test
+	public void autoMapper_usesPrecompiledClasses() throws Exception {
+		Path output = folder.getRoot().toPath();
+		new MapperPrecompiler(output, getClass().getClassLoader()).precompile(Regular.class.getName());
+		PrecompiledClassLoader classLoader = new PrecompiledClassLoader(output, getClass().getClassLoader());
+		Class<?> model = classLoader.loadClass(Regular.class.getName());
+
+		Class<?> mapper = AutoMapper.get(model);
+
+		assertSame(classLoader, mapper.getClassLoader());
+		assertSame(mapper, AutoMapper.get(model));
+		assertSame(classLoader, AutoMapper.getQueryMaps(model).getClassLoader());
+		Mapping mapping = (Mapping) mapper.newInstance();
+		mapping._setValue(Property.get("reg", Clazz.of(String.class)), "my reg");
+		assertEquals("my reg", mapping._getValue(Property.get("reg", Clazz.of(String.class))));
+	}
+
+	@Test
+	public void findPrecompiled_ignoresClassesFromAnotherVersion() throws Exception {
+		Path output = folder.getRoot().toPath();
+		new MapperPrecompiler(output, getClass().getClassLoader()).precompile(Regular.class.getName());
+		Path mapperFile = output.resolve("io/ran/testclasses/Regular$Ran$Mapper.class");
+		String stale = MapperGenerator.VERSION.replaceAll(".", "x");
+		String classFile = new String(Files.readAllBytes(mapperFile), StandardCharsets.ISO_8859_1);
+		assertTrue(classFile.contains(MapperGenerator.VERSION));
+		Files.write(mapperFile, classFile.replace(MapperGenerator.VERSION, stale).getBytes(StandardCharsets.ISO_8859_1));
+		PrecompiledClassLoader classLoader = new PrecompiledClassLoader(output, getClass().getClassLoader());
+		Class<?> model = classLoader.loadClass(Regular.class.getName());
+
+		assertEquals(stale, classLoader.loadClass(Regular.class.getName() + MappingClassWriter.POSTFIX).getAnnotation(GeneratedMapping.class).version());
+		assertFalse(new MapperGenerator().findPrecompiled(model).isPresent());
+	}
+
+	@Test
+	public void findPrecompiled_acceptsClassesPrecompiledWithRanAtAnotherLocation() throws Exception {
+		Path output = folder.getRoot().toPath();
+		ClassLoader buildTime = new RelocatedClassLoader(folder.newFile("ran-core-0.3.jar").toURI().toURL(), getClass().getClassLoader());
+		Class<?> precompiler = buildTime.loadClass(MapperPrecompiler.class.getName());
+		Object instance = precompiler.getConstructor(Path.class, ClassLoader.class).newInstance(output, buildTime);
+		precompiler.getMethod("precompile", String.class).invoke(instance, Regular.class.getName());
+		PrecompiledClassLoader classLoader = new PrecompiledClassLoader(output, getClass().getClassLoader());
+		Class<?> model = classLoader.loadClass(Regular.class.getName());
+
+		assertNotEquals(MapperPrecompiler.class.getProtectionDomain().getCodeSource().getLocation(), buildTime.loadClass(MapperGenerator.class.getName()).getProtectionDomain().getCodeSource().getLocation());
+		assertTrue(new MapperGenerator().findPrecompiled(model).isPresent());
+	}
+
+	private static class PrecompiledClassLoader extends ClassLoader {
+		private Path precompiled;
+
+		PrecompiledClassLoader(Path precompiled, ClassLoader parent) {
+			super(parent);
+			this.precompiled = precompiled;
+		}
+
+		@Override
+		protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+			synchronized (getClassLoadingLock(name)) {
+				if (!name.startsWith(Regular.class.getName())) {
+					return super.loadClass(name, resolve);
+				}
+				Class<?> loaded = findLoadedClass(name);
+				if (loaded == null) {
+					byte[] bytes = read(name);
+					loaded = defineClass(name, bytes, 0, bytes.length);
+				}
+				return loaded;
+			}
+		}
+
+		private byte[] read(String name) throws ClassNotFoundException {
+			String resource = name.replace('.', '/') + ".class";
+			try {
+				Path path = precompiled.resolve(resource);
+				if (Files.exists(path)) {
+					return Files.readAllBytes(path);
+				}
+				try (InputStream inputStream = getParent().getResourceAsStream(resource)) {
+					if (inputStream == null) {
+						throw new ClassNotFoundException(name);
+					}
+					ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+					byte[] buffer = new byte[4096];
+					int read;
+					while ((read = inputStream.read(buffer)) != -1) {
+						outputStream.write(buffer, 0, read);
+					}
+					return outputStream.toByteArray();
+				}
+			} catch (IOException e) {
+				throw new ClassNotFoundException(name, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.Car;
+import io.ran.testclasses.WideRow;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+// Only runs with -Dran.benchmark=true, e.g. through the benchmark task
+public class MappingHelperBenchmark {
+	private GuiceHelper helper;
+	private MappingHelper mappingHelper;
+
+	@Before
+	public void setup() {
+		Assume.assumeTrue(Boolean.getBoolean("ran.benchmark"));
+		helper = new GuiceHelper();
+		mappingHelper = new MappingHelper(helper.factory);
+	}
+
+	@Test
+	public void getValue_contention() throws Exception {
+		int threads = 64;
+		int iterations = 20000;
+		Property idProperty = TypeDescriberImpl.getTypeDescriber(Car.class).fields().get("id");
+		Car car = new Car();
+		car.setId("my id");
+		mappingHelper.getValue(car, idProperty);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<>();
+		long s = System.currentTimeMillis();
+		for (int t = 0; t < threads; t++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < iterations; i++) {
+					assertEquals("my id", mappingHelper.getValue(car, idProperty));
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		System.out.println("time getValue " + threads + " threads x " + iterations + ": " + (System.currentTimeMillis() - s));
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void hydrateAndColumnize_rowsPerSecond() {
+		WideRow row = new WideRow();
+		row.setId("my id");
+		row.setAlpha("alpha");
+		row.setBravo(2);
+		row.setCharlie(3L);
+		row.setZulu(26);
+		ObjectMap map = new ObjectMap();
+		mappingHelper.columnize(row, map);
+		WideRow hydrated = helper.factory.get(WideRow.class);
+
+		int rows = 200000;
+		for (int i = 0; i < rows; i++) {
+			mappingHelper.hydrate(hydrated, map);
+			mappingHelper.columnize(hydrated, new ObjectMap());
+		}
+		long s = System.nanoTime();
+		for (int i = 0; i < rows; i++) {
+			mappingHelper.hydrate(hydrated, map);
+		}
+		long hydrateNanos = System.nanoTime() - s;
+		s = System.nanoTime();
+		for (int i = 0; i < rows; i++) {
+			mappingHelper.columnize(hydrated, new ObjectMap());
+		}
+		long columnizeNanos = System.nanoTime() - s;
+		System.out.println("hydrate " + map.size() + " columns: " + rows * 1000000000L / hydrateNanos + " rows/s, columnize: " + rows * 1000000000L / columnizeNanos + " rows/s");
+
+		assertEquals("alpha", hydrated.getAlpha());
+		assertEquals(26, hydrated.getZulu());
+	}
+
+	@Test
+	public void hydrateAll_rowsPerSecond() {
+		WideRow row = new WideRow();
+		row.setId("my id");
+		row.setAlpha("alpha");
+		row.setZulu(26);
+		ObjectMap map = new ObjectMap();
+		mappingHelper.columnize(row, map);
+		List<ObjectMap> rows = Collections.nCopies(100000, map);
+
+		int[] zulu = new int[1];
+		long nanos = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			long s = System.nanoTime();
+			mappingHelper.hydrateAll(WideRow.class, new MappingHelperTest.ListCursor(rows), hydrated -> zulu[0] += hydrated.getZulu());
+			nanos = Math.min(nanos, System.nanoTime() - s);
+		}
+		System.out.println("hydrateAll " + map.size() + " columns: " + rows.size() * 1000000000L / nanos + " rows/s");
+
+		assertEquals(5 * rows.size() * 26, zulu[0]);
+	}
+}
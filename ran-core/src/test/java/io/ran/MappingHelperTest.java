@@ -10,14 +10,31 @@ package io.ran;
 
 import io.ran.testclasses.Brand;
 import io.ran.testclasses.Car;
+import io.ran.testclasses.Engine;
+import io.ran.testclasses.Regular;
+import io.ran.testclasses.Super;
+import io.ran.testclasses.WideRow;
+import io.ran.testclasses.WithBinaryField;
+import io.ran.testclasses.WithCollections;
 import io.ran.token.Token;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class MappingHelperTest {
 	private GuiceHelper helper;
@@ -111,4 +128,274 @@ public class MappingHelperTest {
 		mappingHelper.setValue(car, typeDescriber.getPropertyFromSnakeCase("crash_rating"), 12.34);
 		assertEquals(12.34, mappingHelper.getValue(car, typeDescriber.getPropertyFromSnakeCase("crash_rating")));
 	}
+
+	@Test
+	public void hydrate_primitivesWithoutBoxing() {
+		List<String> read = new ArrayList<>();
+		ObjectMap map = new ObjectMap() {
+			@Override
+			public int getIntValue(Property key) {
+				read.add(key.getSnakeCase());
+				return 42;
+			}
+
+			@Override
+			public Integer getInteger(Property key) {
+				throw new AssertionError("Should not read boxed value for " + key.getSnakeCase());
+			}
+		};
+		WideRow row = new WideRow();
+
+		mappingHelper.hydrate(row, map);
+
+		assertEquals(42, row.getBravo());
+		assertEquals(42, row.getZulu());
+		assertTrue(read.contains("bravo"));
+	}
+
+	@Test
+	public void hydrate_absentPrimitive_isDefaultValue() {
+		Car car = new Car();
+		car.setTheBoolean(true);
+
+		mappingHelper.hydrate(car, new ObjectMap());
+
+		assertFalse(car.isTheBoolean());
+	}
+
+	@Test
+	public void columnize_primitivesWithoutBoxing() {
+		List<String> written = new ArrayList<>();
+		ObjectMap map = new ObjectMap() {
+			@Override
+			public void set(Property key, int value) {
+				written.add(key.getSnakeCase());
+				put(key.getToken(), value);
+			}
+
+			@Override
+			public void set(Property key, Integer value) {
+				throw new AssertionError("Should not write boxed value for " + key.getSnakeCase());
+			}
+		};
+		WideRow row = new WideRow();
+		row.setBravo(2);
+
+		mappingHelper.columnize(row, map);
+
+		assertTrue(written.contains("bravo"));
+		assertTrue(written.contains("zulu"));
+	}
+
+	@Test
+	public void hydrateAndColumnize_roundTrip() {
+		WideRow row = new WideRow();
+		row.setId("my id");
+		row.setAlpha("alpha");
+		row.setBravo(2);
+		row.setCharlie(3L);
+		row.setZulu(26);
+		ObjectMap map = new ObjectMap();
+		mappingHelper.columnize(row, map);
+		WideRow hydrated = helper.factory.get(WideRow.class);
+
+		mappingHelper.hydrate(hydrated, map);
+		ObjectMap columnized = new ObjectMap();
+		mappingHelper.columnize(hydrated, columnized);
+
+		assertEquals("alpha", hydrated.getAlpha());
+		assertEquals(2, hydrated.getBravo());
+		assertEquals(Long.valueOf(3L), hydrated.getCharlie());
+		assertEquals(26, hydrated.getZulu());
+		assertEquals(map, columnized);
+	}
+
+	@Test
+	public void hydrateAll_listAndConsumer() {
+		List<ObjectMap> rows = new ArrayList<>();
+		for (int i = 0; i < 3; i++) {
+			WideRow row = new WideRow();
+			row.setId("id " + i);
+			row.setBravo(i);
+			ObjectMap map = new ObjectMap();
+			mappingHelper.columnize(row, map);
+			rows.add(map);
+		}
+
+		List<WideRow> hydrated = mappingHelper.hydrateAll(WideRow.class, new ListCursor(rows));
+		assertEquals(3, hydrated.size());
+		assertEquals("id 2", hydrated.get(2).getId());
+		assertEquals(1, hydrated.get(1).getBravo());
+		assertTrue(hydrated.get(0) instanceof Mapping);
+		assertFalse(((Mapping) hydrated.get(0))._isChanged());
+
+		List<String> ids = new ArrayList<>();
+		mappingHelper.hydrateAll(WideRow.class, new ListCursor(rows), row -> ids.add(row.getId()));
+		assertEquals(3, ids.size());
+		assertEquals("id 0", ids.get(0));
+
+		assertTrue(mappingHelper.hydrateAll(WideRow.class, new ListCursor(Collections.emptyList())).isEmpty());
+	}
+
+	@Test
+	public void hydrateAll_plainInstances() {
+		WideRow row = new WideRow();
+		row.setId("my id");
+		row.setBravo(2);
+		ObjectMap map = new ObjectMap();
+		mappingHelper.columnize(row, map);
+		GenericFactory plainFactory = new GenericFactory() {
+			@Override
+			public <T> T get(Class<T> clazz) {
+				return helper.factory.get(clazz);
+			}
+
+			@Override
+			public <T> Supplier<T> getProvider(Class<T> clazz) {
+				return () -> {
+					try {
+						return clazz.newInstance();
+					} catch (InstantiationException | IllegalAccessException e) {
+						throw new RuntimeException(e);
+					}
+				};
+			}
+
+			@Override
+			public <T> T getQueryInstance(Class<T> clazz) {
+				return helper.factory.getQueryInstance(clazz);
+			}
+
+			@Override
+			public DbResolver<DbType> getResolver(Class<? extends DbType> dbTypeClass) {
+				return helper.factory.getResolver(dbTypeClass);
+			}
+		};
+
+		List<WideRow> hydrated = new MappingHelper(plainFactory).hydrateAll(WideRow.class, new ListCursor(Collections.singletonList(map)));
+		assertEquals(1, hydrated.size());
+		assertFalse(hydrated.get(0) instanceof Mapping);
+		assertEquals("my id", hydrated.get(0).getId());
+		assertEquals(2, hydrated.get(0).getBravo());
+	}
+
+	static class ListCursor extends ObjectMap implements ObjectMapCursor {
+		private final Iterator<ObjectMap> rows;
+		private ObjectMap current;
+
+		ListCursor(List<ObjectMap> rows) {
+			this.rows = rows.iterator();
+		}
+
+		@Override
+		public boolean next() {
+			current = rows.hasNext() ? rows.next() : null;
+			return current != null;
+		}
+
+		@Override
+		public Object get(Object key) {
+			return current.get(key);
+		}
+	}
+
+	@Test
+	public void makeCopy_keepsChangedProperties() {
+		TypeDescriber<Car> describer = TypeDescriberImpl.getTypeDescriber(Car.class);
+		Car car = helper.factory.get(Car.class);
+		car.setTitle("Muh car");
+		car.setBrand(Brand.Porsche);
+		((Mapping) car)._resetChanged();
+		car.setCrashRating(4.5);
+
+		Car copy = mappingHelper.makeCopy(Car.class, car);
+		assertEquals("Muh car", copy.getTitle());
+		assertEquals(Brand.Porsche, copy.getBrand());
+		assertEquals(4.5, copy.getCrashRating(), 0.0);
+		assertEquals(Collections.singletonList(describer.fields().get("crash_rating")), ((Mapping) copy)._getChangedProperties());
+
+		Car plain = new Car();
+		plain.setTitle("Plain car");
+		copy = mappingHelper.makeCopy(Car.class, plain);
+		assertEquals("Plain car", copy.getTitle());
+		assertFalse(((Mapping) copy)._isChanged());
+	}
+
+	@Test
+	public void copyValues_marksCopiedPropertiesChanged() {
+		TypeDescriber<Car> describer = TypeDescriberImpl.getTypeDescriber(Car.class);
+		Car plain = new Car();
+		plain.setTitle("new title");
+		Car target = helper.factory.get(Car.class);
+		((Mapping) target)._resetChanged();
+
+		mappingHelper.copyValues(Car.class, plain, target);
+		ObjectMap columns = new ObjectMap();
+		mappingHelper.columnizeChanged(target, columns);
+		assertEquals("new title", target.getTitle());
+		assertTrue(((Mapping) target)._isChanged());
+		assertEquals(describer.fields().size(), columns.size());
+		assertEquals("new title", columns.getString(describer.fields().get("title")));
+
+		Car source = helper.factory.get(Car.class);
+		source.setTitle("Muh car");
+		((Mapping) source)._resetChanged();
+		target = helper.factory.get(Car.class);
+		((Mapping) target)._resetChanged();
+		mappingHelper.copyValues(Car.class, source, target);
+		assertEquals("Muh car", target.getTitle());
+		assertEquals(describer.fields().size(), ((Mapping) target)._getChangedProperties().size());
+	}
+
+	@Test
+	public void makeCopy_withLoadedRelations() {
+		Car car = helper.factory.get(Car.class);
+		car.setId("car id");
+		Engine engine = new Engine();
+		car.setEngine(engine);
+
+		Car copy = mappingHelper.makeCopy(Car.class, car, true, false);
+		assertSame(engine, copy.getEngine());
+	}
+
+	@Test
+	public void makeCopy_deep() {
+		WithCollections withCollections = new WithCollections();
+		withCollections.setId(new ArrayList<>(Arrays.asList("a", "b")));
+		withCollections.setField(new HashSet<>(Arrays.asList("c")));
+		WithBinaryField withBinaryField = new WithBinaryField();
+		withBinaryField.setBytes(new byte[]{1, 2, 3});
+
+		WithCollections shallow = mappingHelper.makeCopy(WithCollections.class, withCollections);
+		assertSame(withCollections.getId(), shallow.getId());
+		WithBinaryField shallowBinary = mappingHelper.makeCopy(WithBinaryField.class, withBinaryField);
+		assertSame(withBinaryField.getBytes(), shallowBinary.getBytes());
+
+		WithCollections deep = mappingHelper.makeCopy(WithCollections.class, withCollections, false, true);
+		assertEquals(withCollections.getId(), deep.getId());
+		assertNotSame(withCollections.getId(), deep.getId());
+		assertEquals(withCollections.getField(), deep.getField());
+		assertNotSame(withCollections.getField(), deep.getField());
+		WithBinaryField deepBinary = mappingHelper.makeCopy(WithBinaryField.class, withBinaryField, false, true);
+		assertTrue(Arrays.equals(withBinaryField.getBytes(), deepBinary.getBytes()));
+		assertNotSame(withBinaryField.getBytes(), deepBinary.getBytes());
+	}
+
+	@Test
+	public void getValue_describedAndForeignProperties() {
+		Regular regular = new Regular();
+		regular.setReg("my reg");
+		regular.setSup("my sup");
+		TypeDescriber<Regular> describer = TypeDescriberImpl.getTypeDescriber(Regular.class);
+
+		assertEquals("my reg", mappingHelper.getValue(regular, describer.fields().get("reg")));
+		assertEquals("my sup", mappingHelper.getValue(regular, describer.fields().get("sup")));
+		assertEquals("my reg", mappingHelper.getValue(regular, Property.get("reg", Clazz.of(String.class))));
+		assertEquals("my sup", mappingHelper.getValue(regular, TypeDescriberImpl.getTypeDescriber(Super.class).fields().get("sup")));
+
+		mappingHelper.setValue(regular, describer.fields().get("sup"), "other sup");
+		mappingHelper.setValue(regular, Property.get("reg", Clazz.of(String.class)), "other reg");
+		assertEquals("other sup", regular.getSup());
+		assertEquals("other reg", regular.getReg());
+	}
 }
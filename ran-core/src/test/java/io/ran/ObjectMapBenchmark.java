@@ -0,0 +1,88 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.WideRow;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+// Only runs with -Dran.benchmark=true, e.g. through the benchmark task
+public class ObjectMapBenchmark {
+	private GuiceHelper helper;
+	private MappingHelper mappingHelper;
+
+	@Before
+	public void setup() {
+		Assume.assumeTrue(Boolean.getBoolean("ran.benchmark"));
+		helper = new GuiceHelper();
+		mappingHelper = new MappingHelper(helper.factory);
+	}
+
+	@Test
+	public void hydrate_objectMapVsObjectSlotMap() {
+		WideRow row = new WideRow();
+		row.setId("my id");
+		row.setAlpha("alpha");
+		row.setBravo(2);
+		ObjectMap objectMap = new ObjectMap();
+		ObjectSlotMap slotMap = new ObjectSlotMap(WideRow.class);
+		mappingHelper.columnize(row, objectMap);
+		mappingHelper.columnize(row, slotMap);
+		WideRow hydrated = helper.factory.get(WideRow.class);
+
+		int rows = 200000;
+		for (int i = 0; i < rows; i++) {
+			mappingHelper.hydrate(hydrated, objectMap);
+			mappingHelper.hydrate(hydrated, slotMap);
+		}
+		long s = System.nanoTime();
+		for (int i = 0; i < rows; i++) {
+			mappingHelper.hydrate(hydrated, objectMap);
+		}
+		long objectMapNanos = System.nanoTime() - s;
+		s = System.nanoTime();
+		for (int i = 0; i < rows; i++) {
+			mappingHelper.hydrate(hydrated, slotMap);
+		}
+		long slotMapNanos = System.nanoTime() - s;
+		System.out.println("hydrate ObjectMap: " + rows * 1000000000L / objectMapNanos + " rows/s, ObjectSlotMap: " + rows * 1000000000L / slotMapNanos + " rows/s");
+
+		assertEquals("alpha", hydrated.getAlpha());
+		assertEquals(2, hydrated.getBravo());
+	}
+
+	@Test
+	public void getString_throughput() {
+		ObjectMap map = new ObjectMap();
+		String[] keys = new String[30];
+		for (int i = 0; i < keys.length; i++) {
+			keys[i] = "FieldName" + i;
+			map.set(keys[i], "value " + i);
+		}
+
+		int lookups = 1000000;
+		int found = 0;
+		long nanos = Long.MAX_VALUE;
+		for (int round = 0; round < 5; round++) {
+			long s = System.nanoTime();
+			for (int i = 0; i < lookups; i++) {
+				if (map.getString(keys[i % keys.length]) != null) {
+					found++;
+				}
+			}
+			nanos = Math.min(nanos, System.nanoTime() - s);
+		}
+		System.out.println("ObjectMap.getString(String): " + lookups * 1000000000L / nanos + " lookups/s");
+
+		assertEquals(5 * lookups, found);
+	}
+}
@@ -0,0 +1,40 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.token.Token;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ObjectMapTest {
+	@Test
+	public void stringKeys_areCamelCase() {
+		ObjectMap map = new ObjectMap();
+		map.set("MyField", "my value");
+
+		assertEquals("my value", map.getString("MyField"));
+		assertEquals("my value", map.getString(Property.get(Token.snake_case("my_field"), Clazz.of(String.class))));
+		assertNull(map.getString("MyOtherField"));
+	}
+
+	@Test
+	public void getString_manyKeys() {
+		ObjectMap map = new ObjectMap();
+		for (int i = 0; i < 30; i++) {
+			map.set("FieldName" + i, "value " + i);
+		}
+
+		for (int i = 0; i < 30; i++) {
+			assertEquals("value " + i, map.getString("FieldName" + i));
+		}
+		assertNull(map.getString("FieldName30"));
+	}
+}
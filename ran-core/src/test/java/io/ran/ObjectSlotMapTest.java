@@ -0,0 +1,109 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.Brand;
+import io.ran.testclasses.Car;
+import io.ran.testclasses.WideRow;
+import io.ran.token.Token;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ObjectSlotMapTest {
+	private GuiceHelper helper;
+	private MappingHelper mappingHelper;
+
+	@Before
+	public void setup() {
+		helper = new GuiceHelper();
+		mappingHelper = new MappingHelper(helper.factory);
+	}
+
+	@Test
+	public void columnizeAndHydrate() {
+		Car car = new Car();
+		car.setId("my id");
+		car.setBrand(Brand.Hyundai);
+		car.setConstructionDate(ZonedDateTime.now());
+		car.setEngineId(UUID.randomUUID());
+		car.setCrashRating(4.5);
+		car.setTheBoolean(true);
+		ObjectSlotMap map = new ObjectSlotMap(Car.class);
+
+		mappingHelper.columnize(car, map);
+		Car hydrated = new Car();
+		mappingHelper.hydrate(hydrated, map);
+
+		assertEquals(car.getId(), hydrated.getId());
+		assertEquals(car.getBrand(), hydrated.getBrand());
+		assertEquals(car.getConstructionDate(), hydrated.getConstructionDate());
+		assertEquals(car.getEngineId(), hydrated.getEngineId());
+		assertEquals(car.getCrashRating(), hydrated.getCrashRating());
+		assertTrue(hydrated.isTheBoolean());
+		assertNull(hydrated.getTitle());
+	}
+
+	@Test
+	public void primitives_readBoxedAndUnboxed() {
+		TypeDescriber<WideRow> describer = TypeDescriberImpl.getTypeDescriber(WideRow.class);
+		ObjectSlotMap map = new ObjectSlotMap(describer);
+		Property bravo = describer.fields().get("bravo");
+		Property charlie = describer.fields().get("charlie");
+
+		map.set(bravo, 2);
+		map.set(charlie, Long.valueOf(3));
+
+		assertEquals(2, map.getIntValue(bravo));
+		assertEquals(Integer.valueOf(2), map.getInteger(bravo));
+		assertEquals(Integer.valueOf(2), map.get(bravo));
+		assertEquals(3L, map.getLongValue(charlie));
+		assertEquals(0, map.getIntValue(describer.fields().get("echo")));
+		assertNull(map.getInteger(describer.fields().get("echo")));
+	}
+
+	@Test
+	public void foreignProperty_isResolvedBySnakeCase() {
+		ObjectSlotMap map = new ObjectSlotMap(Car.class);
+
+		map.set(Property.get("id", Clazz.of(String.class)), "my id");
+
+		assertEquals("my id", map.getString(TypeDescriberImpl.getTypeDescriber(Car.class).fields().get("id")));
+		assertNull(map.getString(Property.get("unknown", Clazz.of(String.class))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void set_unknownProperty() {
+		new ObjectSlotMap(Car.class).set(Property.get("unknown", Clazz.of(String.class)), "value");
+	}
+
+	@Test
+	public void clear_andToObjectMap() {
+		TypeDescriber<Car> describer = TypeDescriberImpl.getTypeDescriber(Car.class);
+		ObjectSlotMap map = new ObjectSlotMap(Car.class);
+		map.set(describer.fields().get("id"), "my id");
+		map.set(describer.fields().get("the_boolean"), true);
+
+		ObjectMap objectMap = map.toObjectMap();
+		assertEquals(2, objectMap.size());
+		assertEquals("my id", objectMap.get(Token.of("id")));
+		assertEquals(true, objectMap.get(Token.of("the", "boolean")));
+
+		map.clear();
+		assertFalse(map.contains(describer.fields().get("id")));
+		assertEquals(0, map.toObjectMap().size());
+	}
+}
@@ -15,6 +15,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class SerializedFieldsTest {
 	private GuiceHelper helper;
@@ -70,4 +72,38 @@ public class SerializedFieldsTest {
 		assertEquals(33, anotherObjectWithSerializedField.getSerialized().getUp());
 		assertEquals("down", anotherObjectWithSerializedField.getSerialized().getDown());
 	}
+
+	@Test
+	public void columnizeChanged_onlyChangedFields() {
+		ObjectMap objectMap = new ObjectMap();
+		objectMap.set(property("id"), "the id yo");
+		objectMap.set(property("serialized"), "{\"up\":33,\"down\":\"down\"}");
+		ObjectWithSerializedField hydrated = helper.factory.get(ObjectWithSerializedField.class);
+		mappingHelper.hydrate(hydrated, objectMap);
+
+		ObjectMap changed = new ObjectMap();
+		mappingHelper.columnizeChanged(hydrated, changed);
+		assertTrue(changed.isEmpty());
+
+		hydrated.setId("another id");
+		changed = new ObjectMap();
+		mappingHelper.columnizeChanged(hydrated, changed);
+		assertEquals("another id", changed.get(Token.get("id")));
+		assertFalse(changed.containsKey(Token.get("serialized")));
+
+		hydrated.setSerialized(objectWithSerializedField.getSerialized());
+		changed = new ObjectMap();
+		mappingHelper.columnizeChanged(hydrated, changed);
+		assertEquals(2, changed.size());
+		assertEquals("{\"up\":33,\"down\":\"down\"}", changed.getString(property("serialized")));
+	}
+
+	@Test
+	public void columnizeChanged_forNonMappedObject_columnizesAllFields() {
+		ObjectMap objectMap = new ObjectMap();
+		mappingHelper.columnizeChanged(objectWithSerializedField, objectMap);
+
+		assertEquals("The id of this thing", objectMap.get(Token.get("id")));
+		assertEquals("{\"up\":33,\"down\":\"down\"}", objectMap.getString(property("serialized")));
+	}
 }
@@ -11,6 +11,10 @@ package io.ran;
 import io.ran.testclasses.Brand;
 import io.ran.testclasses.Car;
 import io.ran.testclasses.Engine;
+import io.ran.testclasses.GraphNode;
+import io.ran.testclasses.GraphNodeLink;
+import io.ran.testclasses.WideRow;
+import io.ran.token.Token;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -18,16 +22,26 @@ import javax.inject.Inject;
 import java.time.Duration;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class TestDoubleTest {
 
@@ -163,6 +177,58 @@ public class TestDoubleTest {
 		assertEquals("My other car", actual.get(0).getId());
 	}
 
+	@Test
+	public void unsortedQuery_isLazy() {
+		int[] tested = new int[1];
+		TestQuery<Car> query = carRepo.query();
+		query.filters.add(car -> {
+			tested[0]++;
+			return true;
+		});
+		assertTrue(query.execute().findFirst().isPresent());
+		assertEquals(1, tested[0]);
+	}
+
+	@Test
+	public void count_honoursFiltersAndLimit() {
+		assertEquals(1, carRepo.query().eq(Car::getTitle, "SUV").count());
+		assertEquals(1, carRepo.query().limit(1, 5).count());
+		assertEquals(0, carRepo.query().limit(3, 5).count());
+		assertEquals(1, carRepo.query().sortAscending(Car::getTitle).limit(1).count());
+	}
+
+	@Test
+	public void limitBeyondMatches_returnsRemainder() {
+		assertEquals(1, carRepo.query().sortAscending(Car::getConstructionDate).limit(1, 5).execute().count());
+		assertEquals(0, carRepo.query().sortAscending(Car::getConstructionDate).limit(3, 5).execute().count());
+		assertEquals(2, carRepo.query().limit(5).execute().count());
+	}
+
+	@Test
+	public void sortAndLimit_matchesSortThenLimit() {
+		TestDoubleDb db = helper.injector.getInstance(TestDoubleDb.class);
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		TestDoubleStore<GraphNodeLink> links = db.getIndexedStore(GraphNodeLink.class);
+		Supplier<GraphNodeLink> provider = helper.factory.getProvider(GraphNodeLink.class);
+		for (int i = 0; i < 10000; i++) {
+			GraphNodeLink link = provider.get();
+			link.setFromId("from" + i);
+			// Every toId is shared by 100 rows, in mixed case
+			link.setToId((i % 2 == 0 ? "to" : "TO") + (i * 37 % 100));
+			links.put(mappingHelper.getKey(link), link);
+		}
+		Comparator<GraphNodeLink> byToIdThenFromId = Comparator.comparing((GraphNodeLink link) -> link.getToId().toLowerCase())
+				.thenComparing(Comparator.comparing((GraphNodeLink link) -> link.getFromId().toLowerCase()).reversed());
+		List<String> sorted = links.values().stream().sorted(byToIdThenFromId).map(GraphNodeLink::getFromId).collect(Collectors.toList());
+
+		for (int[] page : new int[][]{{0, 50}, {130, 70}, {9990, 50}}) {
+			List<String> actual = new TestQuery<>(GraphNodeLink.class, helper.factory, mappingHelper, db)
+					.sortAscending(GraphNodeLink::getToId).sortDescending(GraphNodeLink::getFromId).limit(page[0], page[1])
+					.execute().map(GraphNodeLink::getFromId).collect(Collectors.toList());
+			assertEquals(sorted.subList(page[0], Math.min(sorted.size(), page[0] + page[1])), actual);
+		}
+	}
+
 	@Test
 	public void subQuery() {
 		Optional<Car> actual = carRepo.query().subQuery(Car::getEngine, sq -> {
@@ -172,6 +238,41 @@ public class TestDoubleTest {
 		assertEquals("My car", actual.get().getId());
 	}
 
+	@Test
+	public void subQuery_isEvaluatedOncePerExecute() {
+		int[] tested = new int[1];
+		List<Car> actual = carRepo.query().subQuery(Car::getEngine, sq -> {
+			sq.filters.add(engine -> {
+				tested[0]++;
+				return true;
+			});
+			sq.eq(Engine::getBrand, Brand.Porsche);
+		}).execute().collect(Collectors.toList());
+		assertEquals(1, actual.size());
+		assertEquals("My other car", actual.get(0).getId());
+		assertEquals(2, tested[0]);
+	}
+
+	@Test
+	public void subQueryVia() {
+		TestDoubleDb db = helper.injector.getInstance(TestDoubleDb.class);
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		for (String id : Arrays.asList("a", "b", "c", "d")) {
+			GraphNode node = helper.factory.get(GraphNode.class);
+			node.setId(id);
+			db.getStore(GraphNode.class).put(mappingHelper.getKey(node), node);
+		}
+		for (GraphNodeLink link : Arrays.asList(link("a", "c"), link("b", "c"), link("c", "d"))) {
+			db.getStore(GraphNodeLink.class).put(mappingHelper.getKey(link), link);
+		}
+
+		List<String> actual = new TestQuery<>(GraphNode.class, helper.factory, mappingHelper, db)
+				.subQueryList(GraphNode::getNextNodes, sq -> sq.eq(GraphNode::getId, "c"))
+				.sortAscending(GraphNode::getId)
+				.execute().map(GraphNode::getId).collect(Collectors.toList());
+		assertEquals(Arrays.asList("a", "b"), actual);
+	}
+
 	@Test
 	public void isNull() {
 		car2.setBrand(null);
@@ -203,6 +304,195 @@ public class TestDoubleTest {
 		assertEquals(1, actual.size());
 	}
 
+	@Test
+	public void eqOnIndexedKey_isIndexLookup() {
+		TestDoubleDb db = helper.injector.getInstance(TestDoubleDb.class);
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		TestDoubleStore<GraphNodeLink> links = db.getIndexedStore(GraphNodeLink.class);
+		GraphNodeLink ab = link("a", "b");
+		GraphNodeLink cb = link("c", "b");
+		GraphNodeLink ac = link("a", "c");
+		for (GraphNodeLink link : Arrays.asList(ab, cb, ac)) {
+			links.put(mappingHelper.getKey(link), link);
+		}
+		Token toId = Token.camelHump("toId");
+
+		assertNotSame(links, links.select(Collections.singletonMap(toId, "b")));
+		assertEquals(2, links.select(Collections.singletonMap(toId, "b")).size());
+		assertSame(links, links.select(Collections.singletonMap(Token.camelHump("fromId"), "a")));
+		TestQuery<GraphNodeLink> query = new TestQuery<>(GraphNodeLink.class, helper.factory, mappingHelper, db);
+		assertEquals(1, query.eq(GraphNodeLink::getToId, "b").eq(GraphNodeLink::getFromId, "c").execute().count());
+
+		GraphNodeLink moved = link("c", "c");
+		links.put(mappingHelper.getKey(cb), moved);
+		assertEquals(1, links.select(Collections.singletonMap(toId, "b")).size());
+		assertEquals(2, links.select(Collections.singletonMap(toId, "c")).size());
+
+		new TestQuery<>(GraphNodeLink.class, helper.factory, mappingHelper, db).eq(GraphNodeLink::getToId, "c").delete();
+		assertEquals(0, links.select(Collections.singletonMap(toId, "c")).size());
+		links.remove(mappingHelper.getKey(ab));
+		assertEquals(0, links.select(Collections.singletonMap(toId, "b")).size());
+		assertEquals(0, links.size());
+	}
+
+	@Test
+	public void rangeAndSortOnKeyedProperty_walkOrderedIndex() {
+		TestDoubleDb db = helper.injector.getInstance(TestDoubleDb.class);
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		TestDoubleStore<WideRow> rows = db.getIndexedStore(WideRow.class);
+		for (int i = 0; i < 100; i++) {
+			WideRow row = helper.factory.get(WideRow.class);
+			row.setId("row" + i);
+			row.setBravo(i);
+			row.setCharlie(i % 10 == 0 ? null : (long) i);
+			rows.put(mappingHelper.getKey(row), row);
+		}
+		assertNotNull(rows.ordered(Token.camelHump("bravo"), null, false));
+		assertNull(rows.ordered(Token.camelHump("charlie"), null, false));
+		assertNull(rows.ordered(Token.camelHump("delta"), null, false));
+
+		Function<Consumer<TestQuery<WideRow>>, List<Integer>> query = q -> {
+			TestQuery<WideRow> testQuery = new TestQuery<>(WideRow.class, helper.factory, mappingHelper, db);
+			q.accept(testQuery);
+			return testQuery.execute().map(WideRow::getBravo).collect(Collectors.toList());
+		};
+		assertEquals(Arrays.asList(24, 23, 22, 21, 20), query.apply(q -> q.gte(WideRow::getBravo, 20).lt(WideRow::getBravo, 25).gt(WideRow::getBravo, 10).sortDescending(WideRow::getBravo)));
+		assertEquals(Arrays.asList(99, 98, 97), query.apply(q -> q.sortDescending(WideRow::getBravo).limit(3)));
+		assertEquals(Arrays.asList(3, 4), query.apply(q -> q.sortAscending(WideRow::getBravo).limit(3, 2)));
+		assertEquals(Arrays.asList(96, 97, 98, 99), query.apply(q -> q.gt(WideRow::getCharlie, 95L).sortAscending(WideRow::getBravo)));
+		assertEquals(Arrays.asList(91, 92), query.apply(q -> q.gt(WideRow::getCharlie, 90L).lte(WideRow::getCharlie, 92L).sortAscending(WideRow::getCharlie)));
+		assertEquals(Collections.emptyList(), query.apply(q -> q.gt(WideRow::getBravo, 50).lt(WideRow::getBravo, 40)));
+
+		rows.remove(mappingHelper.getKey(rowWithId("row99")));
+		assertEquals(Arrays.asList(98), query.apply(q -> q.sortDescending(WideRow::getBravo).limit(1)));
+	}
+
+	@Test
+	public void savingFromInsideOrderedQuery_visitsEachRowOnce() {
+		TestDoubleDb db = helper.injector.getInstance(TestDoubleDb.class);
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		TestDoubleStore<WideRow> rows = db.getIndexedStore(WideRow.class);
+		for (int i = 0; i < 100; i++) {
+			WideRow row = helper.factory.get(WideRow.class);
+			row.setId("row" + i);
+			row.setBravo(i);
+			rows.put(mappingHelper.getKey(row), row);
+		}
+		List<Consumer<TestQuery<WideRow>>> queries = Arrays.asList(
+				q -> q.sortAscending(WideRow::getBravo),
+				q -> q.gte(WideRow::getBravo, 0),
+				q -> q.gte(WideRow::getBravo, 0).sortAscending(WideRow::getBravo).limit(10, 50));
+
+		List<Integer> expected = Arrays.asList(100, 100, 50);
+
+		for (int i = 0; i < queries.size(); i++) {
+			TestQuery<WideRow> testQuery = new TestQuery<>(WideRow.class, helper.factory, mappingHelper, db);
+			queries.get(i).accept(testQuery);
+			int[] visited = new int[1];
+			testQuery.execute().limit(1000).forEach(row -> {
+				visited[0]++;
+				row.setBravo(row.getBravo() + 1000);
+				rows.put(mappingHelper.getKey(row), row);
+			});
+			assertEquals(expected.get(i), Integer.valueOf(visited[0]));
+		}
+		assertEquals(100, rows.size());
+	}
+
+	@Test
+	public void rowModifiedInPlace_isReindexedWhenPutBack() {
+		TestDoubleDb db = helper.injector.getInstance(TestDoubleDb.class);
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		TestDoubleStore<GraphNodeLink> links = db.getIndexedStore(GraphNodeLink.class);
+		GraphNodeLink link = link("a", "b");
+		Object key = mappingHelper.getKey(link);
+		links.put(key, link);
+		Token toId = Token.camelHump("toId");
+
+		links.get(key).setToId("c");
+		boolean assertions = false;
+		assert assertions = true;
+		if (assertions) {
+			try {
+				links.select(Collections.singletonMap(toId, "b"));
+				fail("Expected the stale row to be detected");
+			} catch (AssertionError e) {
+				assertTrue(e.getMessage().contains("modified in place"));
+			}
+		}
+
+		links.put(key, links.get(key));
+		assertEquals(0, links.select(Collections.singletonMap(toId, "b")).size());
+		assertEquals(1, links.select(Collections.singletonMap(toId, "c")).size());
+	}
+
+	@Test
+	public void rowsSavedWhileScanning_doNotBreakTheScan() {
+		TestDoubleDb db = helper.injector.getInstance(TestDoubleDb.class);
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		TestDoubleStore<GraphNodeLink> links = db.getIndexedStore(GraphNodeLink.class);
+		for (int i = 0; i < 100; i++) {
+			GraphNodeLink link = link("from" + i, "to" + i);
+			links.put(mappingHelper.getKey(link), link);
+		}
+
+		long scanned = new TestQuery<>(GraphNodeLink.class, helper.factory, mappingHelper, db).execute().peek(link -> {
+			if (link.getFromId().startsWith("copy")) {
+				return;
+			}
+			GraphNodeLink copy = link("copy" + link.getFromId(), link.getToId());
+			links.put(mappingHelper.getKey(copy), copy);
+		}).count();
+
+		assertTrue(scanned >= 100);
+		assertEquals(200, links.size());
+
+		TestDoubleStore<WideRow> rows = db.getIndexedStore(WideRow.class);
+		for (int i = 0; i < 100; i++) {
+			WideRow row = helper.factory.get(WideRow.class);
+			row.setId("row" + i);
+			row.setBravo(i);
+			rows.put(mappingHelper.getKey(row), row);
+		}
+		int[] updated = new int[1];
+		new TestQuery<>(WideRow.class, helper.factory, mappingHelper, db).execute().limit(1000).forEach(row -> {
+			updated[0]++;
+			row.setBravo(row.getBravo() + 1000);
+			rows.put(mappingHelper.getKey(row), row);
+		});
+		assertEquals(100, updated[0]);
+		assertEquals(100, rows.size());
+	}
+
+	@Test
+	public void plainMapInDb_isQueriedWithoutIndexes() {
+		TestDoubleDb db = new TestDoubleDb();
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		Map<Object, Object> plain = Collections.synchronizedMap(new HashMap<>());
+		db.store.put(GraphNodeLink.class, plain);
+		for (GraphNodeLink link : Arrays.asList(link("a", "b"), link("c", "b"), link("a", "c"))) {
+			db.getStore(GraphNodeLink.class).put(mappingHelper.getKey(link), link);
+		}
+
+		assertSame(plain, db.getStore(GraphNodeLink.class));
+		assertEquals(3, plain.size());
+		assertEquals(2, new TestQuery<>(GraphNodeLink.class, helper.factory, mappingHelper, db).eq(GraphNodeLink::getToId, "b").count());
+		new TestQuery<>(GraphNodeLink.class, helper.factory, mappingHelper, db).eq(GraphNodeLink::getFromId, "a").delete();
+		assertEquals(1, plain.size());
+	}
+
+	private WideRow rowWithId(String id) {
+		WideRow row = helper.factory.get(WideRow.class);
+		row.setId(id);
+		return row;
+	}
+
+	private GraphNodeLink link(String fromId, String toId) {
+		GraphNodeLink link = helper.factory.get(GraphNodeLink.class);
+		link.setFromId(fromId);
+		link.setToId(toId);
+		return link;
+	}
 
 	public static class TestCarRepo extends CrudRepositoryTestDoubleBase<Car, String> {
 		@Inject
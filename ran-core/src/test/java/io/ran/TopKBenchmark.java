@@ -0,0 +1,75 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran;
+
+import io.ran.testclasses.GraphNodeLink;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+// Only runs with -Dran.benchmark=true, e.g. through the benchmark task
+public class TopKBenchmark {
+	private GuiceHelper helper;
+
+	@Before
+	public void setup() {
+		Assume.assumeTrue(Boolean.getBoolean("ran.benchmark"));
+		helper = new GuiceHelper();
+	}
+
+	@Test
+	public void sortAndLimit_topK() {
+		TestDoubleDb db = helper.injector.getInstance(TestDoubleDb.class);
+		MappingHelper mappingHelper = helper.injector.getInstance(MappingHelper.class);
+		TestDoubleStore<GraphNodeLink> links = db.getIndexedStore(GraphNodeLink.class);
+		Supplier<GraphNodeLink> provider = helper.factory.getProvider(GraphNodeLink.class);
+		int rows = 1000000;
+		for (int i = 0; i < rows; i++) {
+			GraphNodeLink link = provider.get();
+			link.setFromId("from" + i);
+			link.setToId("to" + (i * 7919L % rows));
+			links.put(mappingHelper.getKey(link), link);
+		}
+		Comparator<GraphNodeLink> byToId = Comparator.comparing(link -> link.getToId().toLowerCase());
+
+		List<String> top = null;
+		long topNanos = Long.MAX_VALUE;
+		long topBytes = Long.MAX_VALUE;
+		for (int round = 0; round < 3; round++) {
+			long bytes = allocatedBytes();
+			long s = System.nanoTime();
+			top = new TestDoubleTest.TestQuery<>(GraphNodeLink.class, helper.factory, mappingHelper, db)
+					.sortAscending(GraphNodeLink::getToId).limit(50)
+					.execute().map(GraphNodeLink::getToId).collect(Collectors.toList());
+			topNanos = Math.min(topNanos, System.nanoTime() - s);
+			topBytes = Math.min(topBytes, allocatedBytes() - bytes);
+		}
+
+		long sortBytes = allocatedBytes();
+		long sortNanos = System.nanoTime();
+		List<GraphNodeLink> sorted = links.values().stream().collect(Collectors.toList());
+		sorted.sort(byToId);
+		sortNanos = System.nanoTime() - sortNanos;
+		sortBytes = allocatedBytes() - sortBytes;
+		assertEquals(sorted.subList(0, 50).stream().map(GraphNodeLink::getToId).collect(Collectors.toList()), top);
+		System.out.println("sort + limit 50 over " + rows + " rows: top-K " + topNanos / 1000000 + " ms, " + topBytes / 1024 + " KiB allocated; full sort " + sortNanos / 1000000 + " ms, " + sortBytes / 1024 + " KiB allocated");
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,300 @@
+/* Copyright 2021 PSQR
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"), to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package io.ran.testclasses;
+
+import io.ran.Key;
+import io.ran.Mapper;
+import io.ran.PrimaryKey;
+import io.ran.TestDbType;
+
+@Mapper(dbType = TestDbType.class)
+public class WideRow {
+	@PrimaryKey
+	private String id;
+	private String alpha;
+	@Key(name = "bravo_idx")
+	private int bravo;
+	@Key(name = "charlie_idx")
+	private Long charlie;
+	private String delta;
+	private int echo;
+	private Long foxtrot;
+	private String golf;
+	private int hotel;
+	private Long india;
+	private String juliett;
+	private int kilo;
+	private Long lima;
+	private String mike;
+	private int november;
+	private Long oscar;
+	private String papa;
+	private int quebec;
+	private Long romeo;
+	private String sierra;
+	private int tango;
+	private Long uniform;
+	private String victor;
+	private int whiskey;
+	private Long xray;
+	private String yankee;
+	private int zulu;
+	private Long first;
+	private String second;
+	private int third;
+	private Long fourth;
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getAlpha() {
+		return alpha;
+	}
+
+	public void setAlpha(String alpha) {
+		this.alpha = alpha;
+	}
+
+	public int getBravo() {
+		return bravo;
+	}
+
+	public void setBravo(int bravo) {
+		this.bravo = bravo;
+	}
+
+	public Long getCharlie() {
+		return charlie;
+	}
+
+	public void setCharlie(Long charlie) {
+		this.charlie = charlie;
+	}
+
+	public String getDelta() {
+		return delta;
+	}
+
+	public void setDelta(String delta) {
+		this.delta = delta;
+	}
+
+	public int getEcho() {
+		return echo;
+	}
+
+	public void setEcho(int echo) {
+		this.echo = echo;
+	}
+
+	public Long getFoxtrot() {
+		return foxtrot;
+	}
+
+	public void setFoxtrot(Long foxtrot) {
+		this.foxtrot = foxtrot;
+	}
+
+	public String getGolf() {
+		return golf;
+	}
+
+	public void setGolf(String golf) {
+		this.golf = golf;
+	}
+
+	public int getHotel() {
+		return hotel;
+	}
+
+	public void setHotel(int hotel) {
+		this.hotel = hotel;
+	}
+
+	public Long getIndia() {
+		return india;
+	}
+
+	public void setIndia(Long india) {
+		this.india = india;
+	}
+
+	public String getJuliett() {
+		return juliett;
+	}
+
+	public void setJuliett(String juliett) {
+		this.juliett = juliett;
+	}
+
+	public int getKilo() {
+		return kilo;
+	}
+
+	public void setKilo(int kilo) {
+		this.kilo = kilo;
+	}
+
+	public Long getLima() {
+		return lima;
+	}
+
+	public void setLima(Long lima) {
+		this.lima = lima;
+	}
+
+	public String getMike() {
+		return mike;
+	}
+
+	public void setMike(String mike) {
+		this.mike = mike;
+	}
+
+	public int getNovember() {
+		return november;
+	}
+
+	public void setNovember(int november) {
+		this.november = november;
+	}
+
+	public Long getOscar() {
+		return oscar;
+	}
+
+	public void setOscar(Long oscar) {
+		this.oscar = oscar;
+	}
+
+	public String getPapa() {
+		return papa;
+	}
+
+	public void setPapa(String papa) {
+		this.papa = papa;
+	}
+
+	public int getQuebec() {
+		return quebec;
+	}
+
+	public void setQuebec(int quebec) {
+		this.quebec = quebec;
+	}
+
+	public Long getRomeo() {
+		return romeo;
+	}
+
+	public void setRomeo(Long romeo) {
+		this.romeo = romeo;
+	}
+
+	public String getSierra() {
+		return sierra;
+	}
+
+	public void setSierra(String sierra) {
+		this.sierra = sierra;
+	}
+
+	public int getTango() {
+		return tango;
+	}
+
+	public void setTango(int tango) {
+		this.tango = tango;
+	}
+
+	public Long getUniform() {
+		return uniform;
+	}
+
+	public void setUniform(Long uniform) {
+		this.uniform = uniform;
+	}
+
+	public String getVictor() {
+		return victor;
+	}
+
+	public void setVictor(String victor) {
+		this.victor = victor;
+	}
+
+	public int getWhiskey() {
+		return whiskey;
+	}
+
+	public void setWhiskey(int whiskey) {
+		this.whiskey = whiskey;
+	}
+
+	public Long getXray() {
+		return xray;
+	}
+
+	public void setXray(Long xray) {
+		this.xray = xray;
+	}
+
+	public String getYankee() {
+		return yankee;
+	}
+
+	public void setYankee(String yankee) {
+		this.yankee = yankee;
+	}
+
+	public int getZulu() {
+		return zulu;
+	}
+
+	public void setZulu(int zulu) {
+		this.zulu = zulu;
+	}
+
+	public Long getFirst() {
+		return first;
+	}
+
+	public void setFirst(Long first) {
+		this.first = first;
+	}
+
+	public String getSecond() {
+		return second;
+	}
+
+	public void setSecond(String second) {
+		this.second = second;
+	}
+
+	public int getThird() {
+		return third;
+	}
+
+	public void setThird(int third) {
+		this.third = third;
+	}
+
+	public Long getFourth() {
+		return fourth;
+	}
+
+	public void setFourth(Long fourth) {
+		this.fourth = fourth;
+	}
+}
@@ -10,7 +10,16 @@ package io.ran.token;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 public class TokenTest {
 	@Test
@@ -55,4 +64,45 @@ public class TokenTest {
 		Token other = Token.CamelCase("MYP");
 		assertEquals(token, other);
 	}
+
+	@Test
+	public void token_interned() {
+		List<String> parts = new ArrayList<>(Arrays.asList("the", "interned", "token"));
+		Token token = Token.of(parts);
+		parts.add("changed");
+
+		assertSame(token, Token.of("the", "interned", "token"));
+		assertSame(token, Token.get("theInternedToken"));
+		assertSame(token, Token.snake_case("the_interned_token"));
+		assertSame(token, Token.get("The interned token"));
+		assertEquals(Arrays.asList("the", "interned", "token"), token.getParts());
+		assertEquals("TheInternedToken", token.javaGetter());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void token_immutable() {
+		Token.of("immutable").getParts().add("changed");
+	}
+
+	@Test
+	public void collectedTokens_areExpunged() {
+		Map<String, Token.TokenReference<String>> table = new ConcurrentHashMap<>();
+		Token token = Token.of("collected", "request", "parameter");
+		Token.TokenReference<String> reference = new Token.TokenReference<>(token, table, "collectedRequestParameter");
+		table.put("collectedRequestParameter", reference);
+		Token.poolSize();
+		assertSame(reference, table.get("collectedRequestParameter"));
+
+		// Enqueuing is what the collector does once the token is only weakly reachable
+		assertTrue(reference.enqueue());
+		Token.poolSize();
+		assertFalse(table.containsKey("collectedRequestParameter"));
+	}
+
+	@Test
+	public void pinnedTokens_stayInterned() {
+		Token pinned = Token.pin(Token.snake_case("pinned_request_parameter"));
+		assertSame(pinned, Token.get("pinned_request_parameter"));
+		assertSame(pinned, Token.of("pinned", "request", "parameter"));
+	}
 }